@@ -2,14 +2,17 @@ import java.util.*;
 
 public class ArraySet<E extends Comparable<E> > extends AbstractSet<E> implements NavigableSet<E> {
 
-    private Comparator<? super E> comparator;
-    private ReversibleList<? extends E> list;
+    private final Comparator<? super E> comparator;
+    private final ReversibleList<E> list;
+    private final BlockIndex<E> index;
+    private ArraySet<E> descending;
 
     public ArraySet(Collection<? extends E> collection, Comparator<? super E> comparator) {
-        final NavigableSet<E> set = new TreeSet<>(comparator);
-        set.addAll(collection);
-        this.list = new ReversibleList<>(set);
-        this.comparator = comparator;
+        this(collection, comparator, SearchLayout.BINARY);
+    }
+
+    public ArraySet(Collection<? extends E> collection, Comparator<? super E> comparator, SearchLayout layout) {
+        this(sortedList(collection.toArray(), comparator, isSortedSet(collection, comparator)), comparator, layout);
     }
 
     public ArraySet(List<? extends E> list) {
@@ -20,40 +23,263 @@ public class ArraySet<E extends Comparable<E> > extends AbstractSet<E> implement
         this(new ArrayList<>(), comparator);
     }
 
+    /**
+     * Returns set backed by {@code array} without copying it; the caller must not modify the array afterwards.
+     * If {@code trusted}, the array must already be strictly increasing by {@code comparator}.
+     * Otherwise it is checked in one linear pass, deduplicated in place, and sorted only if it is out of order.
+     */
+    public static <E extends Comparable<E>> ArraySet<E> wrap(E[] array, Comparator<? super E> comparator,
+                                                             boolean trusted) {
+        return wrap(array, comparator, trusted, SearchLayout.BINARY);
+    }
+
+    /** Same as {@link #wrap(Comparable[], Comparator, boolean)}, searching with the given layout. */
+    public static <E extends Comparable<E>> ArraySet<E> wrap(E[] array, Comparator<? super E> comparator,
+                                                             boolean trusted, SearchLayout layout) {
+        return new ArraySet<>(sortedList(array, comparator, trusted), comparator, layout);
+    }
+
+    /**
+     * Returns set viewing {@code sorted} without copying it. The list must be strictly increasing
+     * by {@code comparator}, must not change, and should support fast random access.
+     */
+    static <E extends Comparable<E>> ArraySet<E> ofSortedList(List<? extends E> sorted,
+                                                              Comparator<? super E> comparator) {
+        return ofSortedList(sorted, comparator, SearchLayout.BINARY);
+    }
+
+    static <E extends Comparable<E>> ArraySet<E> ofSortedList(List<? extends E> sorted,
+                                                              Comparator<? super E> comparator, SearchLayout layout) {
+        return new ArraySet<>(new ReversibleList<>(sorted, 0, sorted.size(), false), comparator, layout);
+    }
+
+    private ArraySet(ReversibleList<E> list, Comparator<? super E> comparator, SearchLayout layout) {
+        this(list, comparator, Objects.requireNonNull(layout) == SearchLayout.BLOCK_INDEX
+                ? new BlockIndex<>(list.list, list.to, comparator)
+                : null, null);
+    }
+
+    /** View over {@code list}, which is already sorted and deduplicated by {@code comparator}. */
+    private ArraySet(ReversibleList<E> list, Comparator<? super E> comparator, BlockIndex<E> index,
+                     ArraySet<E> descending) {
+        this.list = list;
+        this.comparator = comparator;
+        this.index = index;
+        this.descending = descending;
+    }
+
+    private static boolean isSortedSet(Collection<?> collection, Comparator<?> comparator) {
+        return collection instanceof SortedSet && Objects.equals(((SortedSet<?>) collection).comparator(), comparator);
+    }
+
+    /** Sorts and deduplicates {@code array} in place, unless {@code trusted}, and wraps it without copying. */
+    @SuppressWarnings("unchecked")
+    private static <E> ReversibleList<E> sortedList(Object[] array, Comparator<? super E> comparator,
+                                                    boolean trusted) {
+        int size = array.length;
+        if (!trusted) {
+            size = dedupeSorted(array, array.length, comparator);
+            if (size < 0) {
+                Arrays.sort(array, 0, -size - 1, (Comparator<Object>) comparator);
+                size = dedupeSorted(array, -size - 1, comparator);
+            }
+        }
+        return new ReversibleList<>(Arrays.asList((E[]) array), 0, size, false);
+    }
+
+    /**
+     * Removes adjacent duplicates from the first {@code length} elements of {@code array} and returns their new count.
+     * If the elements turn out to be out of order, returns {@code -count - 1}, where first {@code count}
+     * elements of the array still hold all the elements, not sorted.
+     */
+    @SuppressWarnings("unchecked")
+    private static <E> int dedupeSorted(Object[] array, int length, Comparator<? super E> comparator) {
+        int size = 0;
+        for (int i = 0; i < length; i++) {
+            final int order = size == 0 ? -1 : compare((E) array[size - 1], (E) array[i], comparator);
+            if (order < 0) {
+                array[size++] = array[i];
+            } else if (order > 0) {
+                System.arraycopy(array, i, array, size, length - i);
+                return -(size + length - i) - 1;
+            }
+        }
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> int compare(E a, E b, Comparator<? super E> comparator) {
+        return comparator == null ? ((Comparable<? super E>) a).compareTo(b) : comparator.compare(a, b);
+    }
+
     @Override
     public E lower(E e) {
-        E result = list.get(upperBound(e, false));
-        if(e.compareTo(result) < 0) {
-            return null;
-        }
-        return result;
+        return get(floorIndex(e, false));
     }
 
     @Override
     public E floor(E e) {
-        E result = list.get(upperBound(e, true));
-        if(e.compareTo(result) < 0) {
-            return null;
-        }
-        return result;
+        return get(floorIndex(e, true));
     }
 
     @Override
     public E ceiling(E e) {
-        E result = list.get(lowerBound(e, true));
-        if(e.compareTo(result) > 0) {
-            return null;
-        }
-        return result;
+        return get(ceilingIndex(e, true));
     }
 
     @Override
     public E higher(E e) {
-        E result = list.get(lowerBound(e, false));
-        if(e.compareTo(result) > 0) {
-            return null;
+        return get(ceilingIndex(e, false));
+    }
+
+    /**
+     * Stores {@link #floor floor} of every key into {@code results} at the same position.
+     * Keys sorted in the order of this set are answered by a single galloping merge pass, others by
+     * four interleaved branch-free searches, so that their memory accesses overlap.
+     */
+    public void floorAll(E[] keys, E[] results) {
+        searchAll(keys, results, false, -1);
+    }
+
+    /**
+     * Stores {@link #ceiling ceiling} of every key into {@code results}, see {@link #floorAll}.
+     */
+    public void ceilingAll(E[] keys, E[] results) {
+        searchAll(keys, results, true, 0);
+    }
+
+    /** Returns whether every key belongs to this set, merging instead of searching if keys are sorted. */
+    public boolean containsAll(E[] keys) {
+        if (!isSorted(keys)) {
+            for (E key : keys) {
+                if (!contains(key)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        int position = 0;
+        for (E key : keys) {
+            position = gallopCeilingIndex(key, true, position);
+            if (position == list.size() || compare(list.get(position), key) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns elements of this set that belong to {@code other}, in the order of this set.
+     * Sets with the same comparator are merged, galloping through {@code other}.
+     */
+    @SuppressWarnings("unchecked")
+    public ArraySet<E> intersect(ArraySet<E> other) {
+        Object[] common = new Object[Math.min(size(), other.size())];
+        int count = 0;
+        if (Objects.equals(comparator, other.comparator)) {
+            int position = 0;
+            for (int i = 0; i < list.size() && position < other.size(); i++) {
+                E element = list.get(i);
+                position = other.gallopCeilingIndex(element, true, position);
+                if (position < other.size() && compare(other.list.get(position), element) == 0) {
+                    common[count++] = element;
+                }
+            }
+        } else {
+            for (E element : list) {
+                if (other.contains(element)) {
+                    common[count++] = element;
+                }
+            }
+        }
+        List<E> backing = (List<E>) (List<?>) Arrays.asList(common);
+        return new ArraySet<>(new ReversibleList<>(backing, 0, count, false), comparator, SearchLayout.BINARY);
+    }
+
+    private void searchAll(E[] keys, E[] results, boolean inclusive, int shift) {
+        if (results.length < keys.length) {
+            throw new IllegalArgumentException("Results array is shorter than keys array");
+        }
+        if (isSorted(keys)) {
+            int position = 0;
+            for (int i = 0; i < keys.length; i++) {
+                position = gallopCeilingIndex(keys[i], inclusive, position);
+                results[i] = get(position + shift);
+            }
+            return;
+        }
+        int i = 0;
+        int size = list.size();
+        if (size > 0) {
+            for (; i + 4 <= keys.length; i += 4) {
+                E key0 = keys[i];
+                E key1 = keys[i + 1];
+                E key2 = keys[i + 2];
+                E key3 = keys[i + 3];
+                int base0 = 0;
+                int base1 = 0;
+                int base2 = 0;
+                int base3 = 0;
+                int length = size;
+                while (length > 1) {
+                    int half = length >>> 1;
+                    base0 += before(list.get(base0 + half - 1), key0, inclusive) ? half : 0;
+                    base1 += before(list.get(base1 + half - 1), key1, inclusive) ? half : 0;
+                    base2 += before(list.get(base2 + half - 1), key2, inclusive) ? half : 0;
+                    base3 += before(list.get(base3 + half - 1), key3, inclusive) ? half : 0;
+                    length -= half;
+                }
+                results[i] = get(base0 + (before(list.get(base0), key0, inclusive) ? 1 : 0) + shift);
+                results[i + 1] = get(base1 + (before(list.get(base1), key1, inclusive) ? 1 : 0) + shift);
+                results[i + 2] = get(base2 + (before(list.get(base2), key2, inclusive) ? 1 : 0) + shift);
+                results[i + 3] = get(base3 + (before(list.get(base3), key3, inclusive) ? 1 : 0) + shift);
+            }
         }
-        return result;
+        for (; i < keys.length; i++) {
+            results[i] = get(ceilingIndex(keys[i], inclusive) + shift);
+        }
+    }
+
+    private boolean isSorted(E[] keys) {
+        for (int i = 1; i < keys.length; i++) {
+            if (compare(keys[i - 1], keys[i]) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same as {@link #ceilingIndex}, given that every element before {@code start} precedes the ceiling.
+     * Probes exponentially growing steps from {@code start}, so a pass over sorted keys costs
+     * O(k log(n / k)) comparisons in total.
+     */
+    private int gallopCeilingIndex(E element, boolean inclusive, int start) {
+        int size = list.size();
+        int low = start;
+        int high = start;
+        int step = 1;
+        while (high < size && before(list.get(high), element, inclusive)) {
+            low = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        high = Math.min(high, size);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (before(list.get(middle), element, inclusive)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /** Whether {@code value} precedes the ceiling of {@code element}. */
+    private boolean before(E value, E element, boolean inclusive) {
+        int order = compare(value, element);
+        return inclusive ? order < 0 : order <= 0;
     }
 
     @Override
@@ -66,14 +292,25 @@ public class ArraySet<E extends Comparable<E> > extends AbstractSet<E> implement
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(Object o) {
+        int found = ceilingIndex((E) o, true);
+        return found < list.size() && compare(list.get(found), (E) o) == 0;
+    }
+
     @Override
     public Iterator<E> iterator() {
-        return (Iterator<E>) list.iterator();
+        return list.iterator();
     }
 
     @Override
     public NavigableSet<E> descendingSet() {
-        return new ArraySet<>(new ReversibleList<E>(list, true), Collections.reverseOrder(comparator));
+        if (descending == null) {
+            descending = new ArraySet<>(new ReversibleList<>(list, true), Collections.reverseOrder(comparator),
+                    index, this);
+        }
+        return descending;
     }
 
     @Override
@@ -83,43 +320,64 @@ public class ArraySet<E extends Comparable<E> > extends AbstractSet<E> implement
 
     @Override
     public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
-        int indexFrom = lowerBound(fromElement, fromInclusive);
-        int indexTo = upperBound(toElement, toInclusive);
-        return new ArraySet<>(this.list.subList(indexFrom, indexTo + 1));
+        if (compare(fromElement, toElement) > 0) {
+            throw new IllegalArgumentException("fromElement > toElement");
+        }
+        return view(ceilingIndex(fromElement, fromInclusive), floorIndex(toElement, toInclusive) + 1);
     }
 
-    private int upperBound(E toElement, boolean toInclusive) {
-        int index = Collections.binarySearch(list, toElement, comparator);
-        if(index < 0) {
-            index = -index - 1;
+    /** Index of the first element greater than (or equal to) {@code element}, or {@code size()}. */
+    private int ceilingIndex(E element, boolean inclusive) {
+        if (index != null) {
+            return indexedCeilingIndex(element, inclusive);
         }
-        if (!toInclusive) {
-            index--;
+        int found = Collections.binarySearch(list, element, comparator);
+        if(found < 0) {
+            return -found - 1;
         }
-        return Integer.min(size() - 1, index);
+        return inclusive ? found : found + 1;
     }
 
-    private int lowerBound(E fromElement, boolean fromInclusive) {
-        int index = Collections.binarySearch(list, fromElement, comparator);
-        if(index < 0) {
-            index = -index - 1;
-        }
-        if (!fromInclusive) {
-            index++;
+    /**
+     * Same as {@link #ceilingIndex}, searching the block index built in ascending order of the backing list.
+     * In a reversed view the ceiling is the last backing element not greater than {@code element}.
+     */
+    private int indexedCeilingIndex(E element, boolean inclusive) {
+        if (list.isReversed) {
+            return list.to - clamp(index.ceilingIndex(element, !inclusive));
         }
-        return Integer.min(size() - 1, index);
+        return clamp(index.ceilingIndex(element, inclusive)) - list.from;
+    }
+
+    private int clamp(int backingIndex) {
+        return Math.max(list.from, Math.min(list.to, backingIndex));
+    }
+
+    /** Index of the last element less than (or equal to) {@code element}, or {@code -1}. */
+    private int floorIndex(E element, boolean inclusive) {
+        return ceilingIndex(element, !inclusive) - 1;
+    }
+
+    private E get(int index) {
+        return 0 <= index && index < list.size() ? list.get(index) : null;
+    }
+
+    private ArraySet<E> view(int fromIndex, int toIndex) {
+        return new ArraySet<>(list.subList(fromIndex, Math.max(fromIndex, toIndex)), comparator, index, null);
+    }
+
+    private int compare(E a, E b) {
+        return compare(a, b, comparator);
     }
 
     @Override
     public NavigableSet<E> headSet(E toElement, boolean inclusive) {
-        int indexTo = upperBound(toElement, inclusive);
-        return new ArraySet<>(list.subList(0, indexTo), comparator);
+        return view(0, floorIndex(toElement, inclusive) + 1);
     }
 
     @Override
     public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
-        int indexFrom = lowerBound(fromElement, inclusive);
-        return new ArraySet<>(list.subList(indexFrom, list.size() - 1));
+        return view(ceilingIndex(fromElement, inclusive), list.size());
     }
 
     @Override
@@ -144,11 +402,17 @@ public class ArraySet<E extends Comparable<E> > extends AbstractSet<E> implement
 
     @Override
     public E first() {
+        if (list.isEmpty()) {
+            throw new NoSuchElementException();
+        }
         return list.get(0);
     }
 
     @Override
     public E last() {
+        if (list.isEmpty()) {
+            throw new NoSuchElementException();
+        }
         return list.get(list.size() - 1);
     }
 
@@ -157,42 +421,116 @@ public class ArraySet<E extends Comparable<E> > extends AbstractSet<E> implement
         return list.size();
     }
 
+    /** Every sixteenth element of the backing list, searched before a single block of the list itself. */
+    private static class BlockIndex<E> {
+        private static final int BLOCK = 16;
+
+        private final List<? extends E> list;
+        private final int size;
+        private final Object[] keys;
+        private final Comparator<? super E> comparator;
+
+        private BlockIndex(List<? extends E> list, int size, Comparator<? super E> comparator) {
+            this.list = list;
+            this.size = size;
+            this.comparator = comparator;
+            this.keys = new Object[(size + BLOCK - 1) / BLOCK];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = list.get(i * BLOCK);
+            }
+        }
+
+        /** Index of the first backing element greater than (or equal to) {@code element}, or {@code size}. */
+        @SuppressWarnings("unchecked")
+        private int ceilingIndex(E element, boolean inclusive) {
+            if (keys.length == 0) {
+                return 0;
+            }
+            int base = 0;
+            int length = keys.length;
+            while (length > 1) {
+                int half = length >>> 1;
+                base += before((E) keys[base + half - 1], element, inclusive) ? half : 0;
+                length -= half;
+            }
+            int blocks = base + (before((E) keys[base], element, inclusive) ? 1 : 0);
+            if (blocks == 0) {
+                return 0;
+            }
+            int low = (blocks - 1) * BLOCK + 1;
+            int high = Math.min(blocks * BLOCK, size);
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (before(list.get(middle), element, inclusive)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private boolean before(E value, E element, boolean inclusive) {
+            int order = compare(value, element, comparator);
+            return inclusive ? order < 0 : order <= 0;
+        }
+    }
+
+    /** Window {@code [from, to)} of a shared immutable list, optionally read in reverse order. */
     public static class ReversibleList<E> extends AbstractList<E> implements RandomAccess {
 
         private final List<? extends E> list;
-        private boolean isReversed = false;
+        private final int from;
+        private final int to;
+        private final boolean isReversed;
 
         public ReversibleList(Collection<? extends E> list) {
             this.list = List.copyOf(list);
+            this.from = 0;
+            this.to = this.list.size();
             this.isReversed = false;
         }
 
         public ReversibleList(final ReversibleList<? extends E> list, boolean isReversed) {
-            this.list = list;
+            this.list = list.list;
+            this.from = list.from;
+            this.to = list.to;
             this.isReversed = list.isReversed ^ isReversed;
         }
 
+        private ReversibleList(List<? extends E> list, int from, int to, boolean isReversed) {
+            this.list = list;
+            this.from = from;
+            this.to = to;
+            this.isReversed = isReversed;
+        }
+
         public int getReverseIndex(int index) {
             return size() - 1 - index;
         }
 
         @Override
         public ReversibleList<E> subList(int fromIndex, int toIndex) {
-            return new ReversibleList<>(list.subList(fromIndex, toIndex));
+            Objects.checkFromToIndex(fromIndex, toIndex, size());
+            if (isReversed) {
+                return new ReversibleList<>(list, to - toIndex, to - fromIndex, true);
+            }
+            return new ReversibleList<>(list, from + fromIndex, from + toIndex, false);
         }
 
         @Override
         public E get(int index) {
+            Objects.checkIndex(index, size());
             if(isReversed) {
-                return list.get(getReverseIndex(index));
+                return list.get(from + getReverseIndex(index));
             } else {
-                return list.get(index);
+                return list.get(from + index);
             }
         }
 
         @Override
         public int size() {
-            return list.size();
+            return to - from;
         }
     }
-}
\ No newline at end of file
+}
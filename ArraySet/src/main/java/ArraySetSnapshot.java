@@ -0,0 +1,211 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.IntFunction;
+
+/**
+ * Sorted sets saved to files and opened again as read-only sets over memory-mapped files.
+ * Ints and longs open as {@link IntArraySet} and {@link LongArraySet} reading the mapped buffer directly,
+ * at the cost of a header check only; their order is trusted. Strings open as an {@link ArraySet}
+ * after one pass validating the offset table, and each string is decoded once, when first probed.
+ * Lookups binary-search the mapped file and elements stay off-heap.
+ *
+ * <p>File format, little-endian: magic, version, element type and element count as four ints, then
+ * ascending ints or longs, or for strings {@code count + 1} long offsets followed by their UTF-8 bytes.
+ * A file may not exceed 2 GiB.
+ */
+public final class ArraySetSnapshot {
+    private static final int MAGIC = 0x41534554;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 * Integer.BYTES;
+    private static final int INTS = 1;
+    private static final int LONGS = 2;
+    private static final int STRINGS = 3;
+
+    private ArraySetSnapshot() {
+    }
+
+    public static void write(IntArraySet set, Path file) throws IOException {
+        PrimitiveIterator.OfInt values = set.comparator() == null ? set.iterator() : set.descendingIterator();
+        try (Output out = new Output(file, INTS, set.size())) {
+            while (values.hasNext()) {
+                out.reserve(Integer.BYTES).putInt(values.nextInt());
+            }
+        }
+    }
+
+    public static void write(LongArraySet set, Path file) throws IOException {
+        PrimitiveIterator.OfLong values = set.comparator() == null ? set.iterator() : set.descendingIterator();
+        try (Output out = new Output(file, LONGS, set.size())) {
+            while (values.hasNext()) {
+                out.reserve(Long.BYTES).putLong(values.nextLong());
+            }
+        }
+    }
+
+    /** Writes strings in iteration order; the file must be opened with the comparator of {@code set}. */
+    public static void writeStrings(SortedSet<String> set, Path file) throws IOException {
+        try (Output out = new Output(file, STRINGS, set.size())) {
+            long offset = 0;
+            out.reserve(Long.BYTES).putLong(offset);
+            for (String value : set) {
+                offset += value.getBytes(StandardCharsets.UTF_8).length;
+                out.reserve(Long.BYTES).putLong(offset);
+            }
+            for (String value : set) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                for (int i = 0; i < bytes.length; ) {
+                    ByteBuffer buffer = out.reserve(1);
+                    int length = Math.min(buffer.remaining(), bytes.length - i);
+                    buffer.put(bytes, i, length);
+                    i += length;
+                }
+            }
+        }
+    }
+
+    public static IntArraySet openInts(Path file) throws IOException {
+        ByteBuffer data = open(file, INTS);
+        int size = data.getInt(3 * Integer.BYTES);
+        IntBuffer values = slice(data, HEADER_SIZE, (long) size * Integer.BYTES).asIntBuffer();
+        return IntArraySet.ofSortedBuffer(values);
+    }
+
+    public static LongArraySet openLongs(Path file) throws IOException {
+        ByteBuffer data = open(file, LONGS);
+        int size = data.getInt(3 * Integer.BYTES);
+        LongBuffer values = slice(data, HEADER_SIZE, (long) size * Long.BYTES).asLongBuffer();
+        return LongArraySet.ofSortedBuffer(values);
+    }
+
+    public static ArraySet<String> openStrings(Path file) throws IOException {
+        return openStrings(file, null);
+    }
+
+    /** Opens strings written from a set ordered by {@code comparator}. */
+    public static ArraySet<String> openStrings(Path file, Comparator<? super String> comparator) throws IOException {
+        ByteBuffer data = open(file, STRINGS);
+        int size = data.getInt(3 * Integer.BYTES);
+        long offsetsSize = (size + 1L) * Long.BYTES;
+        LongBuffer offsets = slice(data, HEADER_SIZE, offsetsSize).asLongBuffer();
+        ByteBuffer bytes = slice(data, HEADER_SIZE + offsetsSize, data.capacity() - HEADER_SIZE - offsetsSize);
+        if (offsets.get(0) != 0 || offsets.get(size) != bytes.capacity()) {
+            throw new IOException("Malformed snapshot: string data size mismatch");
+        }
+        for (int i = 0; i < size; i++) {
+            if (offsets.get(i) > offsets.get(i + 1)) {
+                throw new IOException("Malformed snapshot: string offsets are not ascending");
+            }
+        }
+        String[] decoded = new String[size];
+        return ArraySet.<String>ofSortedList(new MappedList<>(size, index -> {
+            String value = decoded[index];
+            if (value == null) {
+                ByteBuffer encoded = bytes.duplicate();
+                encoded.limit((int) offsets.get(index + 1)).position((int) offsets.get(index));
+                value = StandardCharsets.UTF_8.decode(encoded).toString();
+                decoded[index] = value;
+            }
+            return value;
+        }), comparator);
+    }
+
+    private static ByteBuffer open(Path file, int type) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshots larger than 2 GiB are not supported");
+            }
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Malformed snapshot: file is too short");
+            }
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            data.order(ByteOrder.LITTLE_ENDIAN);
+            if (data.getInt(0) != MAGIC || data.getInt(Integer.BYTES) != VERSION) {
+                throw new IOException("Not an array set snapshot: " + file);
+            }
+            if (data.getInt(2 * Integer.BYTES) != type) {
+                throw new IOException("Snapshot holds elements of another type: " + file);
+            }
+            if (data.getInt(3 * Integer.BYTES) < 0) {
+                throw new IOException("Malformed snapshot: negative size");
+            }
+            return data;
+        }
+    }
+
+    private static ByteBuffer slice(ByteBuffer data, long offset, long length) throws IOException {
+        if (offset + length > data.capacity()) {
+            throw new IOException("Malformed snapshot: file is truncated");
+        }
+        ByteBuffer slice = data.duplicate();
+        slice.position((int) offset).limit((int) (offset + length));
+        return slice.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /** Read-only list decoding elements of a mapped file on access. */
+    private static class MappedList<E> extends AbstractList<E> implements RandomAccess {
+        private final int size;
+        private final IntFunction<E> decoder;
+
+        private MappedList(int size, IntFunction<E> decoder) {
+            this.size = size;
+            this.decoder = decoder;
+        }
+
+        @Override
+        public E get(int index) {
+            Objects.checkIndex(index, size);
+            return decoder.apply(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /** Buffered little-endian writer of a snapshot file, with the header already written. */
+    private static class Output implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+        private Output(Path file, int type, int size) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(type).putInt(size);
+        }
+
+        /** Returns buffer with room for at least {@code bytes} more bytes. */
+        private ByteBuffer reserve(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+            return buffer;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
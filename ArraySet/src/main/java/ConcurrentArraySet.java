@@ -0,0 +1,364 @@
+import java.util.*;
+
+/**
+ * Mutable sorted set with lock-free reads. Readers see an immutable {@link ArraySet} snapshot
+ * together with small sorted sets of elements added and removed since it was built.
+ * Writers are serialized: every write publishes a new copy of the small delta, and once the delta
+ * reaches the merge threshold it is merged into a new snapshot in one linear pass.
+ *
+ * <p>Iterators see the set as of their creation. Range views are taken from a point-in-time
+ * {@link #snapshot()} rather than from the live set.
+ */
+public class ConcurrentArraySet<E extends Comparable<E>> extends AbstractSet<E> {
+    public static final int DEFAULT_MERGE_THRESHOLD = 1024;
+
+    private final Comparator<? super E> comparator;
+    private final int mergeThreshold;
+    private final SearchLayout layout;
+    private final Object writeLock = new Object();
+    private volatile State<E> state;
+
+    private volatile long mergeCount = 0;
+    private volatile long mergeNanos = 0;
+    private volatile long lastMergeNanos = 0;
+    private volatile long mergedElements = 0;
+
+    public ConcurrentArraySet(Comparator<? super E> comparator) {
+        this(List.of(), comparator, DEFAULT_MERGE_THRESHOLD, SearchLayout.BINARY);
+    }
+
+    public ConcurrentArraySet(Collection<? extends E> collection, Comparator<? super E> comparator,
+                              int mergeThreshold, SearchLayout layout) {
+        if (mergeThreshold <= 0) {
+            throw new IllegalArgumentException("Expected positive merge threshold");
+        }
+        this.comparator = comparator;
+        this.mergeThreshold = mergeThreshold;
+        this.layout = Objects.requireNonNull(layout);
+        ArraySet<E> empty = ArraySet.ofSortedList(List.<E>of(), comparator);
+        this.state = new State<>(new ArraySet<>(collection, comparator, layout), empty, empty);
+    }
+
+    /** Returns immutable set of the current elements, merging pending writes first if there are any. */
+    public ArraySet<E> snapshot() {
+        State<E> current = state;
+        if (current.added.isEmpty() && current.removed.isEmpty()) {
+            return current.snapshot;
+        }
+        synchronized (writeLock) {
+            merge();
+            return state.snapshot;
+        }
+    }
+
+    /** Merges pending writes into a new snapshot now, for callers that prefer to merge on their own schedule. */
+    public void flush() {
+        synchronized (writeLock) {
+            merge();
+        }
+    }
+
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    /** Number of snapshot merges performed so far. */
+    public long getMergeCount() {
+        return mergeCount;
+    }
+
+    /** Total time spent merging, in nanoseconds. */
+    public long getMergeNanos() {
+        return mergeNanos;
+    }
+
+    /** Time spent by the most recent merge, in nanoseconds. */
+    public long getLastMergeNanos() {
+        return lastMergeNanos;
+    }
+
+    /** Total number of elements written into merged snapshots. */
+    public long getMergedElements() {
+        return mergedElements;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(Object o) {
+        State<E> current = state;
+        return current.contains((E) o);
+    }
+
+    @Override
+    public int size() {
+        State<E> current = state;
+        return current.snapshot.size() + current.added.size() - current.removed.size();
+    }
+
+    public E lower(E e) {
+        State<E> current = state;
+        return closest(current.skipRemoved(current.snapshot.lower(e), false), current.added.lower(e), false);
+    }
+
+    public E floor(E e) {
+        State<E> current = state;
+        return closest(current.skipRemoved(current.snapshot.floor(e), false), current.added.floor(e), false);
+    }
+
+    public E ceiling(E e) {
+        State<E> current = state;
+        return closest(current.skipRemoved(current.snapshot.ceiling(e), true), current.added.ceiling(e), true);
+    }
+
+    public E higher(E e) {
+        State<E> current = state;
+        return closest(current.skipRemoved(current.snapshot.higher(e), true), current.added.higher(e), true);
+    }
+
+    /**
+     * Returns the least element.
+     *
+     * @throws NoSuchElementException if the set is empty
+     */
+    public E first() {
+        return existing(least(state));
+    }
+
+    /**
+     * Returns the greatest element.
+     *
+     * @throws NoSuchElementException if the set is empty
+     */
+    public E last() {
+        return existing(greatest(state));
+    }
+
+    @Override
+    public boolean add(E e) {
+        Objects.requireNonNull(e);
+        synchronized (writeLock) {
+            State<E> current = state;
+            if (current.removed.contains(e)) {
+                publish(new State<>(current.snapshot, current.added, without(current.removed, e)));
+            } else if (!current.snapshot.contains(e) && !current.added.contains(e)) {
+                publish(new State<>(current.snapshot, with(current.added, e), current.removed));
+            } else {
+                return false;
+            }
+            return true;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(Object o) {
+        E e = (E) Objects.requireNonNull(o);
+        synchronized (writeLock) {
+            State<E> current = state;
+            if (current.added.contains(e)) {
+                publish(new State<>(current.snapshot, without(current.added, e), current.removed));
+            } else if (current.snapshot.contains(e) && !current.removed.contains(e)) {
+                publish(new State<>(current.snapshot, current.added, with(current.removed, e)));
+            } else {
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /** Removes and returns the least element, or returns {@code null} if the set is empty. */
+    public E pollFirst() {
+        synchronized (writeLock) {
+            E first = least(state);
+            if (first != null) {
+                remove(first);
+            }
+            return first;
+        }
+    }
+
+    /** Removes and returns the greatest element, or returns {@code null} if the set is empty. */
+    public E pollLast() {
+        synchronized (writeLock) {
+            E last = greatest(state);
+            if (last != null) {
+                remove(last);
+            }
+            return last;
+        }
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        final State<E> current = state;
+        return new Iterator<>() {
+            private final Iterator<E> snapshot = current.snapshot.iterator();
+            private final Iterator<E> added = current.added.iterator();
+            private E nextSnapshot = advanceSnapshot();
+            private E nextAdded = added.hasNext() ? added.next() : null;
+            private E last;
+
+            private E advanceSnapshot() {
+                while (snapshot.hasNext()) {
+                    E element = snapshot.next();
+                    if (!current.removed.contains(element)) {
+                        return element;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return nextSnapshot != null || nextAdded != null;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (nextAdded == null || nextSnapshot != null && compare(nextSnapshot, nextAdded) < 0) {
+                    last = nextSnapshot;
+                    nextSnapshot = advanceSnapshot();
+                } else {
+                    last = nextAdded;
+                    nextAdded = added.hasNext() ? added.next() : null;
+                }
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                ConcurrentArraySet.this.remove(last);
+                last = null;
+            }
+        };
+    }
+
+    private void publish(State<E> next) {
+        state = next;
+        if (next.added.size() + next.removed.size() >= mergeThreshold) {
+            merge();
+        }
+    }
+
+    /** Builds a new snapshot from the current one and the delta. Must hold the write lock. */
+    @SuppressWarnings("unchecked")
+    private void merge() {
+        State<E> current = state;
+        if (current.added.isEmpty() && current.removed.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        Object[] merged = new Object[current.snapshot.size() + current.added.size() - current.removed.size()];
+        int count = 0;
+        Iterator<E> iterator = iterator();
+        while (iterator.hasNext()) {
+            merged[count++] = iterator.next();
+        }
+        ArraySet<E> snapshot = ArraySet.ofSortedList((List<E>) (List<?>) Arrays.asList(merged), comparator, layout);
+        ArraySet<E> empty = ArraySet.ofSortedList(List.<E>of(), comparator);
+        state = new State<>(snapshot, empty, empty);
+        long elapsed = System.nanoTime() - start;
+        mergeCount++;
+        mergeNanos += elapsed;
+        lastMergeNanos = elapsed;
+        mergedElements += count;
+    }
+
+    /** Returns copy of small {@code set} with {@code e} inserted. */
+    @SuppressWarnings("unchecked")
+    private ArraySet<E> with(ArraySet<E> set, E e) {
+        Object[] elements = new Object[set.size() + 1];
+        int count = 0;
+        boolean inserted = false;
+        for (E element : set) {
+            if (!inserted && compare(e, element) < 0) {
+                elements[count++] = e;
+                inserted = true;
+            }
+            elements[count++] = element;
+        }
+        if (!inserted) {
+            elements[count] = e;
+        }
+        return ArraySet.ofSortedList((List<E>) (List<?>) Arrays.asList(elements), comparator);
+    }
+
+    /** Returns copy of small {@code set} without {@code e}, which it contains. */
+    @SuppressWarnings("unchecked")
+    private ArraySet<E> without(ArraySet<E> set, E e) {
+        Object[] elements = new Object[set.size() - 1];
+        int count = 0;
+        for (E element : set) {
+            if (compare(e, element) != 0) {
+                elements[count++] = element;
+            }
+        }
+        return ArraySet.ofSortedList((List<E>) (List<?>) Arrays.asList(elements), comparator);
+    }
+
+    /** Returns the least element of {@code current}, or {@code null} if it is empty. */
+    private E least(State<E> current) {
+        E fromSnapshot = current.snapshot.isEmpty() ? null : current.skipRemoved(current.snapshot.first(), true);
+        return closest(fromSnapshot, current.added.isEmpty() ? null : current.added.first(), true);
+    }
+
+    /** Returns the greatest element of {@code current}, or {@code null} if it is empty. */
+    private E greatest(State<E> current) {
+        E fromSnapshot = current.snapshot.isEmpty() ? null : current.skipRemoved(current.snapshot.last(), false);
+        return closest(fromSnapshot, current.added.isEmpty() ? null : current.added.last(), false);
+    }
+
+    private static <E> E existing(E element) {
+        if (element == null) {
+            throw new NoSuchElementException();
+        }
+        return element;
+    }
+
+    /** Returns the lesser ({@code least == false}: the greater) of two candidates, ignoring {@code null}. */
+    private E closest(E a, E b, boolean least) {
+        if (a == null || b == null) {
+            return a == null ? b : a;
+        }
+        int order = compare(a, b);
+        return least == order <= 0 ? a : b;
+    }
+
+    private int compare(E a, E b) {
+        return comparator == null ? a.compareTo(b) : comparator.compare(a, b);
+    }
+
+    /**
+     * Immutable view of the set: {@code added} is disjoint from {@code snapshot}
+     * and {@code removed} is a subset of it.
+     */
+    private static class State<E extends Comparable<E>> {
+        private final ArraySet<E> snapshot;
+        private final ArraySet<E> added;
+        private final ArraySet<E> removed;
+
+        private State(ArraySet<E> snapshot, ArraySet<E> added, ArraySet<E> removed) {
+            this.snapshot = snapshot;
+            this.added = added;
+            this.removed = removed;
+        }
+
+        private boolean contains(E e) {
+            return added.contains(e) || snapshot.contains(e) && !removed.contains(e);
+        }
+
+        /** Returns {@code candidate} or its nearest snapshot neighbour in the given direction that was not removed. */
+        private E skipRemoved(E candidate, boolean ascending) {
+            while (candidate != null && removed.contains(candidate)) {
+                candidate = ascending ? snapshot.higher(candidate) : snapshot.lower(candidate);
+            }
+            return candidate;
+        }
+    }
+}
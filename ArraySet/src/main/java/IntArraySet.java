@@ -0,0 +1,273 @@
+import java.nio.IntBuffer;
+import java.util.*;
+
+/**
+ * Immutable navigable set of {@code int} values stored in a sorted {@code int[]}, or in a sorted buffer
+ * such as a memory-mapped {@link ArraySetSnapshot}.
+ * Ranged and descending views share the backing storage, and the {@code *Int} methods never box.
+ */
+public class IntArraySet extends PrimitiveArraySet<Integer, IntArraySet> {
+    /** Backing array, or {@code null} if elements are read from {@link #buffer}. */
+    private final int[] array;
+    private final IntBuffer buffer;
+    /** Every {@link #BLOCK}-th element of the whole backing set, or {@code null} for {@link SearchLayout#BINARY}. */
+    private final int[] index;
+
+    public IntArraySet(int... values) {
+        this(values.clone(), false, SearchLayout.BINARY);
+    }
+
+    public IntArraySet(int[] values, SearchLayout layout) {
+        this(values.clone(), false, layout);
+    }
+
+    public IntArraySet(Collection<Integer> collection) {
+        this(collection.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private IntArraySet(int[] array, boolean trusted, SearchLayout layout) {
+        this(array, trusted ? array.length : sortedSize(array), layout);
+    }
+
+    private IntArraySet(int[] array, int size, SearchLayout layout) {
+        super(0, size, false, layout == SearchLayout.BLOCK_INDEX, size);
+        this.array = array;
+        this.buffer = null;
+        this.index = layout == SearchLayout.BLOCK_INDEX ? blockIndex(array, size) : null;
+    }
+
+    private IntArraySet(IntArraySet set, int from, int to, boolean reversed) {
+        super(set, from, to, reversed);
+        this.array = set.array;
+        this.buffer = set.buffer;
+        this.index = set.index;
+    }
+
+    private IntArraySet(IntBuffer buffer) {
+        super(0, buffer.limit(), false, false, 0);
+        this.array = null;
+        this.buffer = buffer;
+        this.index = null;
+    }
+
+    /**
+     * Returns set reading elements from {@code buffer} between index zero and its limit, without copying them.
+     * The elements must be strictly increasing and must not change.
+     */
+    static IntArraySet ofSortedBuffer(IntBuffer buffer) {
+        return new IntArraySet(buffer);
+    }
+
+    /**
+     * Returns set backed by {@code array} without copying it; the caller must not modify the array afterwards.
+     * If {@code trusted}, the array must already be strictly increasing.
+     * Otherwise it is checked in one linear pass, deduplicated in place, and sorted only if it is out of order.
+     */
+    public static IntArraySet wrap(int[] array, boolean trusted) {
+        return wrap(array, trusted, SearchLayout.BINARY);
+    }
+
+    /** Same as {@link #wrap(int[], boolean)}, searching with the given layout. */
+    public static IntArraySet wrap(int[] array, boolean trusted, SearchLayout layout) {
+        return new IntArraySet(array, trusted, Objects.requireNonNull(layout));
+    }
+
+    private static int[] blockIndex(int[] array, int size) {
+        int[] index = new int[(size + BLOCK - 1) / BLOCK];
+        for (int i = 0; i < index.length; i++) {
+            index[i] = array[i * BLOCK];
+        }
+        return index;
+    }
+
+    /** Sorts {@code array} if needed, moves distinct values to its beginning and returns their count. */
+    private static int sortedSize(int[] array) {
+        int size = 0;
+        for (int i = 0; i < array.length; i++) {
+            if (size == 0 || array[size - 1] < array[i]) {
+                array[size++] = array[i];
+            } else if (array[size - 1] > array[i]) {
+                Arrays.sort(array);
+                return sortedSize(array);
+            }
+        }
+        return size;
+    }
+
+    public boolean containsInt(int e) {
+        return containsKey(e);
+    }
+
+    /** Returns the greatest element less than {@code e}, or {@code absent} if there is no such element. */
+    public int lowerInt(int e, int absent) {
+        return getOrElse(lowerPosition(e), absent);
+    }
+
+    /** Returns the greatest element less than or equal to {@code e}, or {@code absent} if there is no such element. */
+    public int floorInt(int e, int absent) {
+        return getOrElse(floorPosition(e), absent);
+    }
+
+    /** Returns the least element greater than or equal to {@code e}, or {@code absent} if there is no such element. */
+    public int ceilingInt(int e, int absent) {
+        return getOrElse(ceilingPosition(e), absent);
+    }
+
+    /** Returns the least element greater than {@code e}, or {@code absent} if there is no such element. */
+    public int higherInt(int e, int absent) {
+        return getOrElse(higherPosition(e), absent);
+    }
+
+    public int firstInt() {
+        return intAt(firstPosition());
+    }
+
+    public int lastInt() {
+        return intAt(lastPosition());
+    }
+
+    /** Returns elements of this set in iteration order. */
+    public int[] toIntArray() {
+        int[] result;
+        if (array != null) {
+            result = Arrays.copyOfRange(array, from, to);
+        } else {
+            result = new int[to - from];
+            buffer.duplicate().position(from).get(result);
+        }
+        if (reversed) {
+            for (int i = 0, j = result.length - 1; i < j; i++, j--) {
+                int value = result[i];
+                result[i] = result[j];
+                result[j] = value;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stores {@link #floorInt floor} of every key into {@code results} at the same position.
+     * Ascending keys are answered by a single galloping merge pass, others by
+     * four interleaved branch-free searches, so that their memory accesses overlap.
+     */
+    public void floorAll(int[] keys, int[] results, int absent) {
+        searchAll(keys, results, absent, true);
+    }
+
+    /** Stores {@link #ceilingInt ceiling} of every key into {@code results}, see {@link #floorAll}. */
+    public void ceilingAll(int[] keys, int[] results, int absent) {
+        searchAll(keys, results, absent, false);
+    }
+
+    private void searchAll(int[] keys, int[] results, int absent, boolean floor) {
+        if (results.length < keys.length) {
+            throw new IllegalArgumentException("Results array is shorter than keys array");
+        }
+        searchAll(i -> keys[i], keys.length, floor, (i, position) -> results[i] = getOrElse(position, absent));
+    }
+
+    /** Returns whether every key belongs to this set, merging instead of searching if keys are ascending. */
+    public boolean containsAll(int[] keys) {
+        return containsAll(i -> keys[i], keys.length);
+    }
+
+    /** Returns elements of this set that belong to {@code other}, in the order of this set. */
+    public IntArraySet intersect(IntArraySet other) {
+        int[] common = new int[Math.min(size(), other.size())];
+        int[] count = {0};
+        intersect(other, position -> common[count[0]++] = intAt(position));
+        IntArraySet result = new IntArraySet(common, count[0], SearchLayout.BINARY);
+        return reversed ? result.descendingSet() : result;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer && containsInt((Integer) o);
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return reversed ? new DescendingIntIterator() : new AscendingIntIterator();
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt descendingIterator() {
+        return reversed ? new AscendingIntIterator() : new DescendingIntIterator();
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash += Integer.hashCode(intAt(i));
+        }
+        return hash;
+    }
+
+    @Override
+    long at(int position) {
+        return intAt(position);
+    }
+
+    @Override
+    long indexAt(int position) {
+        return index[position];
+    }
+
+    @Override
+    int indexLength() {
+        return index.length;
+    }
+
+    @Override
+    Integer element(int position) {
+        return intAt(position);
+    }
+
+    @Override
+    IntArraySet view(int from, int to, boolean reversed) {
+        return new IntArraySet(this, from, to, reversed);
+    }
+
+    private int getOrElse(int position, int absent) {
+        return inWindow(position) ? intAt(position) : absent;
+    }
+
+    private int intAt(int position) {
+        return array != null ? array[position] : buffer.get(position);
+    }
+
+    private class AscendingIntIterator implements PrimitiveIterator.OfInt {
+        private int next = from;
+
+        @Override
+        public boolean hasNext() {
+            return next < to;
+        }
+
+        @Override
+        public int nextInt() {
+            if (next >= to) {
+                throw new NoSuchElementException();
+            }
+            return intAt(next++);
+        }
+    }
+
+    private class DescendingIntIterator implements PrimitiveIterator.OfInt {
+        private int next = to - 1;
+
+        @Override
+        public boolean hasNext() {
+            return next >= from;
+        }
+
+        @Override
+        public int nextInt() {
+            if (next < from) {
+                throw new NoSuchElementException();
+            }
+            return intAt(next--);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+import java.nio.LongBuffer;
+import java.util.*;
+
+/**
+ * Immutable navigable set of {@code long} values stored in a sorted {@code long[]}, or in a sorted buffer
+ * such as a memory-mapped {@link ArraySetSnapshot}.
+ * Ranged and descending views share the backing storage, and the {@code *Long} methods never box.
+ */
+public class LongArraySet extends PrimitiveArraySet<Long, LongArraySet> {
+    /** Backing array, or {@code null} if elements are read from {@link #buffer}. */
+    private final long[] array;
+    private final LongBuffer buffer;
+    /** Every {@link #BLOCK}-th element of the whole backing set, or {@code null} for {@link SearchLayout#BINARY}. */
+    private final long[] index;
+
+    public LongArraySet(long... values) {
+        this(values.clone(), false, SearchLayout.BINARY);
+    }
+
+    public LongArraySet(long[] values, SearchLayout layout) {
+        this(values.clone(), false, layout);
+    }
+
+    public LongArraySet(Collection<Long> collection) {
+        this(collection.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    private LongArraySet(long[] array, boolean trusted, SearchLayout layout) {
+        this(array, trusted ? array.length : sortedSize(array), layout);
+    }
+
+    private LongArraySet(long[] array, int size, SearchLayout layout) {
+        super(0, size, false, layout == SearchLayout.BLOCK_INDEX, size);
+        this.array = array;
+        this.buffer = null;
+        this.index = layout == SearchLayout.BLOCK_INDEX ? blockIndex(array, size) : null;
+    }
+
+    private LongArraySet(LongArraySet set, int from, int to, boolean reversed) {
+        super(set, from, to, reversed);
+        this.array = set.array;
+        this.buffer = set.buffer;
+        this.index = set.index;
+    }
+
+    private LongArraySet(LongBuffer buffer) {
+        super(0, buffer.limit(), false, false, 0);
+        this.array = null;
+        this.buffer = buffer;
+        this.index = null;
+    }
+
+    /**
+     * Returns set reading elements from {@code buffer} between index zero and its limit, without copying them.
+     * The elements must be strictly increasing and must not change.
+     */
+    static LongArraySet ofSortedBuffer(LongBuffer buffer) {
+        return new LongArraySet(buffer);
+    }
+
+    /**
+     * Returns set backed by {@code array} without copying it; the caller must not modify the array afterwards.
+     * If {@code trusted}, the array must already be strictly increasing.
+     * Otherwise it is checked in one linear pass, deduplicated in place, and sorted only if it is out of order.
+     */
+    public static LongArraySet wrap(long[] array, boolean trusted) {
+        return wrap(array, trusted, SearchLayout.BINARY);
+    }
+
+    /** Same as {@link #wrap(long[], boolean)}, searching with the given layout. */
+    public static LongArraySet wrap(long[] array, boolean trusted, SearchLayout layout) {
+        return new LongArraySet(array, trusted, Objects.requireNonNull(layout));
+    }
+
+    private static long[] blockIndex(long[] array, int size) {
+        long[] index = new long[(size + BLOCK - 1) / BLOCK];
+        for (int i = 0; i < index.length; i++) {
+            index[i] = array[i * BLOCK];
+        }
+        return index;
+    }
+
+    /** Sorts {@code array} if needed, moves distinct values to its beginning and returns their count. */
+    private static int sortedSize(long[] array) {
+        int size = 0;
+        for (int i = 0; i < array.length; i++) {
+            if (size == 0 || array[size - 1] < array[i]) {
+                array[size++] = array[i];
+            } else if (array[size - 1] > array[i]) {
+                Arrays.sort(array);
+                return sortedSize(array);
+            }
+        }
+        return size;
+    }
+
+    public boolean containsLong(long e) {
+        return containsKey(e);
+    }
+
+    /** Returns the greatest element less than {@code e}, or {@code absent} if there is no such element. */
+    public long lowerLong(long e, long absent) {
+        return getOrElse(lowerPosition(e), absent);
+    }
+
+    /** Returns the greatest element less than or equal to {@code e}, or {@code absent} if there is no such element. */
+    public long floorLong(long e, long absent) {
+        return getOrElse(floorPosition(e), absent);
+    }
+
+    /** Returns the least element greater than or equal to {@code e}, or {@code absent} if there is no such element. */
+    public long ceilingLong(long e, long absent) {
+        return getOrElse(ceilingPosition(e), absent);
+    }
+
+    /** Returns the least element greater than {@code e}, or {@code absent} if there is no such element. */
+    public long higherLong(long e, long absent) {
+        return getOrElse(higherPosition(e), absent);
+    }
+
+    public long firstLong() {
+        return longAt(firstPosition());
+    }
+
+    public long lastLong() {
+        return longAt(lastPosition());
+    }
+
+    /** Returns elements of this set in iteration order. */
+    public long[] toLongArray() {
+        long[] result;
+        if (array != null) {
+            result = Arrays.copyOfRange(array, from, to);
+        } else {
+            result = new long[to - from];
+            buffer.duplicate().position(from).get(result);
+        }
+        if (reversed) {
+            for (int i = 0, j = result.length - 1; i < j; i++, j--) {
+                long value = result[i];
+                result[i] = result[j];
+                result[j] = value;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stores {@link #floorLong floor} of every key into {@code results} at the same position.
+     * Ascending keys are answered by a single galloping merge pass, others by
+     * four interleaved branch-free searches, so that their memory accesses overlap.
+     */
+    public void floorAll(long[] keys, long[] results, long absent) {
+        searchAll(keys, results, absent, true);
+    }
+
+    /** Stores {@link #ceilingLong ceiling} of every key into {@code results}, see {@link #floorAll}. */
+    public void ceilingAll(long[] keys, long[] results, long absent) {
+        searchAll(keys, results, absent, false);
+    }
+
+    private void searchAll(long[] keys, long[] results, long absent, boolean floor) {
+        if (results.length < keys.length) {
+            throw new IllegalArgumentException("Results array is shorter than keys array");
+        }
+        searchAll(i -> keys[i], keys.length, floor, (i, position) -> results[i] = getOrElse(position, absent));
+    }
+
+    /** Returns whether every key belongs to this set, merging instead of searching if keys are ascending. */
+    public boolean containsAll(long[] keys) {
+        return containsAll(i -> keys[i], keys.length);
+    }
+
+    /** Returns elements of this set that belong to {@code other}, in the order of this set. */
+    public LongArraySet intersect(LongArraySet other) {
+        long[] common = new long[Math.min(size(), other.size())];
+        int[] count = {0};
+        intersect(other, position -> common[count[0]++] = longAt(position));
+        LongArraySet result = new LongArraySet(common, count[0], SearchLayout.BINARY);
+        return reversed ? result.descendingSet() : result;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Long && containsLong((Long) o);
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong iterator() {
+        return reversed ? new DescendingLongIterator() : new AscendingLongIterator();
+    }
+
+    @Override
+    public PrimitiveIterator.OfLong descendingIterator() {
+        return reversed ? new AscendingLongIterator() : new DescendingLongIterator();
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash += Long.hashCode(longAt(i));
+        }
+        return hash;
+    }
+
+    @Override
+    long at(int position) {
+        return longAt(position);
+    }
+
+    @Override
+    long indexAt(int position) {
+        return index[position];
+    }
+
+    @Override
+    int indexLength() {
+        return index.length;
+    }
+
+    @Override
+    Long element(int position) {
+        return longAt(position);
+    }
+
+    @Override
+    LongArraySet view(int from, int to, boolean reversed) {
+        return new LongArraySet(this, from, to, reversed);
+    }
+
+    private long getOrElse(int position, long absent) {
+        return inWindow(position) ? longAt(position) : absent;
+    }
+
+    private long longAt(int position) {
+        return array != null ? array[position] : buffer.get(position);
+    }
+
+    private class AscendingLongIterator implements PrimitiveIterator.OfLong {
+        private int next = from;
+
+        @Override
+        public boolean hasNext() {
+            return next < to;
+        }
+
+        @Override
+        public long nextLong() {
+            if (next >= to) {
+                throw new NoSuchElementException();
+            }
+            return longAt(next++);
+        }
+    }
+
+    private class DescendingLongIterator implements PrimitiveIterator.OfLong {
+        private int next = to - 1;
+
+        @Override
+        public boolean hasNext() {
+            return next >= from;
+        }
+
+        @Override
+        public long nextLong() {
+            if (next < from) {
+                throw new NoSuchElementException();
+            }
+            return longAt(next--);
+        }
+    }
+}
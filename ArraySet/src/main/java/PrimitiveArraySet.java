@@ -0,0 +1,374 @@
+import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Search, range and view logic shared by {@link IntArraySet} and {@link LongArraySet}.
+ * Elements are compared as {@code long}, which is exact for widened {@code int} values;
+ * subclasses only store the backing array and read its elements.
+ *
+ * <p>Positions are indices into the whole backing array; the set is the window {@code [from, to)} of it.
+ */
+abstract class PrimitiveArraySet<E extends Number, S extends PrimitiveArraySet<E, S>>
+        extends AbstractSet<E> implements NavigableSet<E> {
+    static final int BLOCK = 16;
+
+    final int from;
+    final int to;
+    final boolean reversed;
+    /** Whether the whole backing set has a block index, see {@link SearchLayout#BLOCK_INDEX}. */
+    private final boolean indexed;
+    /** Number of elements covered by the block index. */
+    private final int indexedSize;
+
+    PrimitiveArraySet(int from, int to, boolean reversed, boolean indexed, int indexedSize) {
+        this.from = from;
+        this.to = to;
+        this.reversed = reversed;
+        this.indexed = indexed;
+        this.indexedSize = indexedSize;
+    }
+
+    /** View of {@code set} sharing its backing array and block index. */
+    PrimitiveArraySet(PrimitiveArraySet<E, S> set, int from, int to, boolean reversed) {
+        this(from, to, reversed, set.indexed, set.indexedSize);
+    }
+
+    /** Element of the backing array at {@code position}. */
+    abstract long at(int position);
+
+    /** Element of the block index at {@code position}. */
+    abstract long indexAt(int position);
+
+    abstract int indexLength();
+
+    /** Boxed element of the backing array at {@code position}. */
+    abstract E element(int position);
+
+    /** Set sharing the backing array of this set and limited to {@code [from, to)}. */
+    abstract S view(int from, int to, boolean reversed);
+
+    /** Whether {@code e} belongs to this set. */
+    final boolean containsKey(long e) {
+        int position = ceilingIndex(e, true);
+        return position < to && at(position) == e;
+    }
+
+    /** Position of the greatest element less than {@code e} in iteration order, outside the window if none. */
+    final int lowerPosition(long e) {
+        return reversed ? ceilingIndex(e, false) : floorIndex(e, false);
+    }
+
+    final int floorPosition(long e) {
+        return reversed ? ceilingIndex(e, true) : floorIndex(e, true);
+    }
+
+    final int ceilingPosition(long e) {
+        return reversed ? floorIndex(e, true) : ceilingIndex(e, true);
+    }
+
+    final int higherPosition(long e) {
+        return reversed ? floorIndex(e, false) : ceilingIndex(e, false);
+    }
+
+    final int firstPosition() {
+        checkNotEmpty();
+        return reversed ? to - 1 : from;
+    }
+
+    final int lastPosition() {
+        checkNotEmpty();
+        return reversed ? from : to - 1;
+    }
+
+    final boolean inWindow(int position) {
+        return from <= position && position < to;
+    }
+
+    /**
+     * Passes position of the floor (if {@code floor}) or ceiling of each of {@code count} keys to {@code results}.
+     * Ascending keys are answered by a single galloping merge pass, others by
+     * four interleaved branch-free searches, so that their memory accesses overlap.
+     */
+    final void searchAll(IntToLongFunction keys, int count, boolean floor, IndexSink results) {
+        if (floor == reversed) {
+            searchAll(keys, count, true, 0, results);
+        } else {
+            searchAll(keys, count, false, -1, results);
+        }
+    }
+
+    /** Passes position at {@code shift} from the ascending ceiling index of every key to {@code results}. */
+    private void searchAll(IntToLongFunction keys, int count, boolean inclusive, int shift, IndexSink results) {
+        if (isAscending(keys, count)) {
+            int position = from;
+            for (int i = 0; i < count; i++) {
+                position = gallopCeilingIndex(keys.applyAsLong(i), inclusive, position);
+                results.accept(i, position + shift);
+            }
+            return;
+        }
+        int i = 0;
+        if (to - from > 0) {
+            for (; i + 4 <= count; i += 4) {
+                long key0 = keys.applyAsLong(i);
+                long key1 = keys.applyAsLong(i + 1);
+                long key2 = keys.applyAsLong(i + 2);
+                long key3 = keys.applyAsLong(i + 3);
+                int base0 = from;
+                int base1 = from;
+                int base2 = from;
+                int base3 = from;
+                int length = to - from;
+                while (length > 1) {
+                    int half = length >>> 1;
+                    base0 += before(at(base0 + half - 1), key0, inclusive) ? half : 0;
+                    base1 += before(at(base1 + half - 1), key1, inclusive) ? half : 0;
+                    base2 += before(at(base2 + half - 1), key2, inclusive) ? half : 0;
+                    base3 += before(at(base3 + half - 1), key3, inclusive) ? half : 0;
+                    length -= half;
+                }
+                results.accept(i, base0 + (before(at(base0), key0, inclusive) ? 1 : 0) + shift);
+                results.accept(i + 1, base1 + (before(at(base1), key1, inclusive) ? 1 : 0) + shift);
+                results.accept(i + 2, base2 + (before(at(base2), key2, inclusive) ? 1 : 0) + shift);
+                results.accept(i + 3, base3 + (before(at(base3), key3, inclusive) ? 1 : 0) + shift);
+            }
+        }
+        for (; i < count; i++) {
+            results.accept(i, ceilingIndex(keys.applyAsLong(i), inclusive) + shift);
+        }
+    }
+
+    /** Returns whether each of {@code count} keys belongs to this set, merging instead of searching if keys are ascending. */
+    final boolean containsAll(IntToLongFunction keys, int count) {
+        boolean sorted = isAscending(keys, count);
+        int position = from;
+        for (int i = 0; i < count; i++) {
+            long key = keys.applyAsLong(i);
+            position = sorted ? gallopCeilingIndex(key, true, position) : ceilingIndex(key, true);
+            if (position == to || at(position) != key) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Passes ascending positions of elements of this set that belong to {@code other} to {@code common}. */
+    final void intersect(PrimitiveArraySet<E, S> other, IntConsumer common) {
+        int position = other.from;
+        for (int i = from; i < to && position < other.to; i++) {
+            long value = at(i);
+            position = other.gallopCeilingIndex(value, true, position);
+            if (position < other.to && other.at(position) == value) {
+                common.accept(i);
+            }
+        }
+    }
+
+    private static boolean isAscending(IntToLongFunction keys, int count) {
+        for (int i = 1; i < count; i++) {
+            if (keys.applyAsLong(i - 1) > keys.applyAsLong(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same as {@link #ceilingIndex}, given that every element before {@code start} precedes the ceiling.
+     * Probes exponentially growing steps from {@code start}.
+     */
+    private int gallopCeilingIndex(long e, boolean inclusive, int start) {
+        int low = start;
+        int high = start;
+        int step = 1;
+        while (high < to && before(at(high), e, inclusive)) {
+            low = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        high = Math.min(high, to);
+        return lowerBound(e, inclusive, low, high);
+    }
+
+    /** Index of the first element of the window that is greater than (or equal to) {@code e}, or {@code to}. */
+    private int ceilingIndex(long e, boolean inclusive) {
+        if (indexed) {
+            return Math.max(from, Math.min(to, indexedCeilingIndex(e, inclusive)));
+        }
+        return lowerBound(e, inclusive, from, to);
+    }
+
+    /** Binary search for the first position in {@code [low, high)} that does not precede the ceiling of {@code e}. */
+    private int lowerBound(long e, boolean inclusive, int low, int high) {
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (before(at(middle), e, inclusive)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /** Same as {@link #ceilingIndex} over the whole backing set, searching the block index. */
+    private int indexedCeilingIndex(long e, boolean inclusive) {
+        int length = indexLength();
+        if (length == 0) {
+            return 0;
+        }
+        int base = 0;
+        while (length > 1) {
+            int half = length >>> 1;
+            base += before(indexAt(base + half - 1), e, inclusive) ? half : 0;
+            length -= half;
+        }
+        int blocks = base + (before(indexAt(base), e, inclusive) ? 1 : 0);
+        if (blocks == 0) {
+            return 0;
+        }
+        int start = (blocks - 1) * BLOCK;
+        int end = Math.min(start + BLOCK, indexedSize);
+        int result = start;
+        for (int i = start; i < end; i++) {
+            result += before(at(i), e, inclusive) ? 1 : 0;
+        }
+        return result;
+    }
+
+    /** Whether {@code value} precedes the ceiling of {@code e}. */
+    private static boolean before(long value, long e, boolean inclusive) {
+        return inclusive ? value < e : value <= e;
+    }
+
+    /** Index of the last element of the window that is less than (or equal to) {@code e}, or {@code from - 1}. */
+    private int floorIndex(long e, boolean inclusive) {
+        return ceilingIndex(e, !inclusive) - 1;
+    }
+
+    @Override
+    public E lower(E e) {
+        return get(lowerPosition(e.longValue()));
+    }
+
+    @Override
+    public E floor(E e) {
+        return get(floorPosition(e.longValue()));
+    }
+
+    @Override
+    public E ceiling(E e) {
+        return get(ceilingPosition(e.longValue()));
+    }
+
+    @Override
+    public E higher(E e) {
+        return get(higherPosition(e.longValue()));
+    }
+
+    @Override
+    public E pollFirst() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public E pollLast() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public S descendingSet() {
+        return view(from, to, !reversed);
+    }
+
+    @Override
+    public S subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+        long fromKey = fromElement.longValue();
+        long toKey = toElement.longValue();
+        if (compare(fromKey, toKey) > 0) {
+            throw new IllegalArgumentException("fromElement > toElement");
+        }
+        if (reversed) {
+            return window(ceilingIndex(toKey, toInclusive), floorIndex(fromKey, fromInclusive) + 1);
+        }
+        return window(ceilingIndex(fromKey, fromInclusive), floorIndex(toKey, toInclusive) + 1);
+    }
+
+    @Override
+    public S headSet(E toElement, boolean inclusive) {
+        long toKey = toElement.longValue();
+        if (reversed) {
+            return window(ceilingIndex(toKey, inclusive), to);
+        }
+        return window(from, floorIndex(toKey, inclusive) + 1);
+    }
+
+    @Override
+    public S tailSet(E fromElement, boolean inclusive) {
+        long fromKey = fromElement.longValue();
+        if (reversed) {
+            return window(from, floorIndex(fromKey, inclusive) + 1);
+        }
+        return window(ceilingIndex(fromKey, inclusive), to);
+    }
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return reversed ? Collections.reverseOrder() : null;
+    }
+
+    @Override
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> headSet(E toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> tailSet(E fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    @Override
+    public E first() {
+        return element(firstPosition());
+    }
+
+    @Override
+    public E last() {
+        return element(lastPosition());
+    }
+
+    @Override
+    public int size() {
+        return to - from;
+    }
+
+    /** Window of this set in the same order, empty if {@code toIndex < fromIndex}. */
+    final S window(int fromIndex, int toIndex) {
+        return view(fromIndex, Math.max(fromIndex, toIndex), reversed);
+    }
+
+    private E get(int position) {
+        return inWindow(position) ? element(position) : null;
+    }
+
+    private int compare(long a, long b) {
+        return reversed ? Long.compare(b, a) : Long.compare(a, b);
+    }
+
+    private void checkNotEmpty() {
+        if (from == to) {
+            throw new NoSuchElementException();
+        }
+    }
+
+    /** Receives the position found for the key at {@code i}. */
+    interface IndexSink {
+        void accept(int i, int position);
+    }
+}
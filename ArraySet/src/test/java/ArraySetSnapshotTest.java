@@ -0,0 +1,139 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArraySetSnapshotTest {
+    @TempDir
+    Path dir;
+
+    private final Random random = new Random(4027);
+
+    @Test
+    void intsRoundTrip() throws IOException {
+        for (int size : new int[]{0, 1, 17, 1000}) {
+            final int[] values = random.ints(size).toArray();
+            final IntArraySet set = new IntArraySet(values);
+            final Path file = dir.resolve("ints" + size);
+            ArraySetSnapshot.write(set, file);
+            final IntArraySet opened = ArraySetSnapshot.openInts(file);
+            assertArrayEquals(set.toIntArray(), opened.toIntArray());
+
+            final TreeSet<Integer> expected = new TreeSet<>();
+            Arrays.stream(values).forEach(expected::add);
+            assertEquals(expected, opened);
+            for (int i = 0; i < 100; i++) {
+                final int key = i % 2 == 0 && size > 0 ? values[random.nextInt(size)] : random.nextInt();
+                assertEquals(expected.floor(key), opened.floor(key));
+                assertEquals(expected.higher(key), opened.higher(key));
+                assertEquals(expected.contains(key), opened.containsInt(key));
+                assertEquals(expected.headSet(key, true), opened.headSet(key, true));
+                assertEquals((int) Objects.requireNonNullElse(expected.ceiling(key), -1), opened.ceilingInt(key, -1));
+            }
+            assertEquals(new ArrayList<>(expected.descendingSet()), new ArrayList<>(opened.descendingSet()));
+        }
+    }
+
+    @Test
+    void descendingIntsRoundTrip() throws IOException {
+        final IntArraySet set = new IntArraySet(5, 1, 3);
+        final Path file = dir.resolve("descending");
+        ArraySetSnapshot.write(set.descendingSet(), file);
+        assertArrayEquals(new int[]{1, 3, 5}, ArraySetSnapshot.openInts(file).toIntArray());
+    }
+
+    @Test
+    void longsRoundTrip() throws IOException {
+        final long[] values = random.longs(500).toArray();
+        final LongArraySet set = new LongArraySet(values);
+        final Path file = dir.resolve("longs");
+        ArraySetSnapshot.write(set, file);
+        final LongArraySet opened = ArraySetSnapshot.openLongs(file);
+        assertArrayEquals(set.toLongArray(), opened.toLongArray());
+
+        final long[] keys = random.longs(64).toArray();
+        final long[] expected = new long[keys.length];
+        final long[] actual = new long[keys.length];
+        set.floorAll(keys, expected, 0);
+        opened.floorAll(keys, actual, 0);
+        assertArrayEquals(expected, actual);
+        assertTrue(opened.containsAll(Arrays.copyOf(set.toLongArray(), 10)));
+    }
+
+    @Test
+    void stringsRoundTrip() throws IOException {
+        for (Comparator<String> comparator : Arrays.<Comparator<String>>asList(null, Comparator.reverseOrder())) {
+            final TreeSet<String> expected = new TreeSet<>(comparator);
+            expected.addAll(List.of("", "a", "abc", "b", "\u0436\u0443\u043a", "\ud83d\ude00", "zz"));
+            final Path file = dir.resolve("strings");
+            ArraySetSnapshot.writeStrings(expected, file);
+            final ArraySet<String> opened = ArraySetSnapshot.openStrings(file, comparator);
+            assertEquals(new ArrayList<>(expected), new ArrayList<>(opened));
+            for (String key : List.of("", "aa", "b", "c", "\u0437", "\uffff")) {
+                assertEquals(expected.floor(key), opened.floor(key), key);
+                assertEquals(expected.ceiling(key), opened.ceiling(key), key);
+                assertEquals(expected.contains(key), opened.contains(key), key);
+            }
+        }
+    }
+
+    @Test
+    void truncatedFile() throws IOException {
+        final Path ints = dir.resolve("ints");
+        ArraySetSnapshot.write(new IntArraySet(1, 2, 3, 4), ints);
+        truncate(ints, 4);
+        assertThrows(IOException.class, () -> ArraySetSnapshot.openInts(ints));
+        truncate(ints, 10);
+        assertThrows(IOException.class, () -> ArraySetSnapshot.openInts(ints));
+
+        final Path strings = dir.resolve("strings");
+        ArraySetSnapshot.writeStrings(new TreeSet<>(List.of("alpha", "beta")), strings);
+        truncate(strings, 1);
+        assertThrows(IOException.class, () -> ArraySetSnapshot.openStrings(strings));
+    }
+
+    @Test
+    void badMagic() throws IOException {
+        final Path file = dir.resolve("ints");
+        ArraySetSnapshot.write(new IntArraySet(1, 2, 3), file);
+        patchInt(file, 0, 0xCAFEBABE);
+        assertThrows(IOException.class, () -> ArraySetSnapshot.openInts(file));
+    }
+
+    @Test
+    void wrongType() throws IOException {
+        final Path file = dir.resolve("ints");
+        ArraySetSnapshot.write(new IntArraySet(1, 2, 3), file);
+        assertThrows(IOException.class, () -> ArraySetSnapshot.openLongs(file));
+        assertThrows(IOException.class, () -> ArraySetSnapshot.openStrings(file));
+    }
+
+    @Test
+    void descendingStringOffsets() throws IOException {
+        final Path file = dir.resolve("strings");
+        ArraySetSnapshot.writeStrings(new TreeSet<>(List.of("alpha", "beta", "gamma")), file);
+        // offsets 0, 5, 9, 14 follow the 16-byte header; swap the middle ones so they go down
+        final ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        data.putLong(16 + Long.BYTES, 9).putLong(16 + 2 * Long.BYTES, 5);
+        Files.write(file, data.array());
+        assertThrows(IOException.class, () -> ArraySetSnapshot.openStrings(file));
+    }
+
+    private static void truncate(Path file, int bytes) throws IOException {
+        final byte[] data = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(data, data.length - bytes));
+    }
+
+    private static void patchInt(Path file, int offset, int value) throws IOException {
+        final ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        data.putInt(offset, value);
+        Files.write(file, data.array());
+    }
+}
@@ -0,0 +1,205 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArraySetTest {
+    private static final List<Comparator<Integer>> COMPARATORS =
+            Arrays.asList(null, Comparator.reverseOrder(), Comparator.comparingInt(i -> Math.floorMod(i, 7)));
+    /** Sizes around the block of {@link SearchLayout#BLOCK_INDEX}. */
+    private static final int[] SIZES = {0, 1, 2, 15, 16, 17, 33, 100, 1000};
+
+    private final Random random = new Random(3571);
+
+    @Test
+    void matchesTreeSet() {
+        for (SearchLayout layout : SearchLayout.values()) {
+            for (Comparator<Integer> comparator : COMPARATORS) {
+                for (int size : SIZES) {
+                    List<Integer> values = randomInts(size, size * 2 + 1);
+                    TreeSet<Integer> expected = new TreeSet<>(comparator);
+                    expected.addAll(values);
+                    ArraySet<Integer> actual = new ArraySet<>(values, comparator, layout);
+                    NavigableSetAssert.assertNavigable(expected, actual, probes(size * 2 + 1), random, 2,
+                            (e, a) -> {});
+                }
+            }
+        }
+    }
+
+    @Test
+    void descendingSetIsCached() {
+        ArraySet<Integer> set = new ArraySet<>(List.of(3, 1, 2));
+        NavigableSet<Integer> descending = set.descendingSet();
+        assertSame(descending, set.descendingSet());
+        assertSame(set, descending.descendingSet());
+        assertEquals(List.of(3, 2, 1), new ArrayList<>(descending));
+
+        NavigableSet<Integer> head = set.headSet(3, false);
+        assertSame(head.descendingSet(), head.descendingSet().descendingSet().descendingSet());
+        assertEquals(List.of(2, 1), new ArrayList<>(head.descendingSet()));
+    }
+
+    @Test
+    void viewsShareBackingArray() {
+        Integer[] array = {10, 20, 30, 40, 50};
+        for (SearchLayout layout : SearchLayout.values()) {
+            ArraySet<Integer> set = ArraySet.wrap(array, null, true, layout);
+            NavigableSet<Integer> view = set.descendingSet().subSet(45, true, 15, false).descendingSet();
+            assertEquals(List.of(20, 30, 40), new ArrayList<>(view));
+            // views are windows over the array rather than copies
+            array[2] = 35;
+            assertEquals(List.of(20, 35, 40), new ArrayList<>(view));
+            assertEquals((Integer) 35, view.floor(39));
+            array[2] = 30;
+        }
+    }
+
+    @Test
+    void reversibleList() {
+        List<Integer> source = randomInts(50, 1000);
+        ArraySet.ReversibleList<Integer> list = new ArraySet.ReversibleList<>(source);
+        assertEquals(source, list);
+
+        List<Integer> reversedSource = new ArrayList<>(source);
+        Collections.reverse(reversedSource);
+        ArraySet.ReversibleList<Integer> reversed = new ArraySet.ReversibleList<>(list, true);
+        assertEquals(reversedSource, reversed);
+        assertEquals(source, new ArraySet.ReversibleList<>(reversed, true));
+        assertEquals(reversedSource, new ArraySet.ReversibleList<>(reversed, false));
+        assertEquals(49, reversed.getReverseIndex(0));
+
+        for (int i = 0; i < 100; i++) {
+            int from = random.nextInt(51);
+            int to = from + random.nextInt(51 - from);
+            ArraySet.ReversibleList<Integer> sub = reversed.subList(from, to);
+            assertEquals(reversedSource.subList(from, to), sub);
+            List<Integer> subReversed = new ArrayList<>(reversedSource.subList(from, to));
+            Collections.reverse(subReversed);
+            assertEquals(subReversed, new ArraySet.ReversibleList<>(sub, true));
+            if (to > from) {
+                int nested = random.nextInt(to - from);
+                assertEquals(reversedSource.subList(from + nested, to), sub.subList(nested, to - from));
+            }
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> reversed.get(50));
+        assertThrows(IndexOutOfBoundsException.class, () -> reversed.subList(10, 51));
+    }
+
+    @Test
+    void wrap() {
+        Integer[] unsorted = {5, 3, 5, 1, 3, 9, 1};
+        ArraySet<Integer> set = ArraySet.wrap(unsorted, null, false);
+        assertEquals(List.of(1, 3, 5, 9), new ArrayList<>(set));
+
+        Integer[] sorted = {1, 1, 2, 4, 4, 4, 8};
+        ArraySet<Integer> deduplicated = ArraySet.wrap(sorted, null, false);
+        assertEquals(List.of(1, 2, 4, 8), new ArrayList<>(deduplicated));
+        // an ordered array is deduplicated in place and not copied
+        assertArrayEquals(new Integer[]{1, 2, 4, 8}, Arrays.copyOf(sorted, 4));
+
+        Integer[] descending = {9, 7, 7, 3};
+        assertEquals(List.of(9, 7, 3), new ArrayList<>(ArraySet.wrap(descending, Comparator.reverseOrder(), false)));
+
+        Integer[] trusted = {2, 4, 6};
+        ArraySet<Integer> wrapped = ArraySet.wrap(trusted, null, true, SearchLayout.BLOCK_INDEX);
+        trusted[1] = 5;
+        assertTrue(wrapped.contains(5));
+
+        for (int size : SIZES) {
+            List<Integer> values = randomInts(size, size + 1);
+            TreeSet<Integer> expected = new TreeSet<>(values);
+            assertEquals(new ArrayList<>(expected),
+                    new ArrayList<>(ArraySet.wrap(values.toArray(new Integer[0]), null, false)));
+            assertEquals(new ArrayList<>(expected),
+                    new ArrayList<>(ArraySet.wrap(expected.toArray(new Integer[0]), null, true)));
+            assertEquals(new ArrayList<>(expected), new ArrayList<>(new ArraySet<>(expected, null)));
+        }
+    }
+
+    @Test
+    void batchSearch() {
+        for (SearchLayout layout : SearchLayout.values()) {
+            for (Comparator<Integer> comparator : Arrays.asList(null, Comparator.<Integer>reverseOrder())) {
+                for (int size : SIZES) {
+                    TreeSet<Integer> expected = new TreeSet<>(comparator);
+                    expected.addAll(randomInts(size, size * 2 + 1));
+                    ArraySet<Integer> set = new ArraySet<>(expected, comparator, layout);
+                    for (int count : new int[]{0, 1, 3, 4, 7, 64}) {
+                        Integer[] keys = new Integer[count];
+                        for (int i = 0; i < count; i++) {
+                            keys[i] = random.nextInt(size * 2 + 5) - 2;
+                        }
+                        assertBatch(expected, set, keys);
+                        Arrays.sort(keys, comparator);
+                        assertBatch(expected, set, keys);
+                    }
+                }
+            }
+        }
+        ArraySet<Integer> set = new ArraySet<>(List.of(1, 2));
+        assertThrows(IllegalArgumentException.class, () -> set.floorAll(new Integer[]{1, 2}, new Integer[1]));
+    }
+
+    @Test
+    void intersect() {
+        for (int size : SIZES) {
+            TreeSet<Integer> left = new TreeSet<>(randomInts(size, size * 2 + 1));
+            TreeSet<Integer> right = new TreeSet<>(randomInts(size, size * 2 + 1));
+            TreeSet<Integer> common = new TreeSet<>(left);
+            common.retainAll(right);
+            ArraySet<Integer> set = new ArraySet<>(left, null);
+            assertEquals(new ArrayList<>(common), new ArrayList<>(set.intersect(new ArraySet<>(right, null))));
+            assertEquals(new ArrayList<>(common),
+                    new ArrayList<>(set.intersect(new ArraySet<>(right, Comparator.reverseOrder()))));
+        }
+    }
+
+    @Test
+    void immutable() {
+        ArraySet<Integer> set = new ArraySet<>(List.of(1, 2, 3));
+        assertThrows(UnsupportedOperationException.class, set::pollFirst);
+        assertThrows(UnsupportedOperationException.class, set::pollLast);
+        assertThrows(UnsupportedOperationException.class, () -> set.add(4));
+        Iterator<Integer> iterator = set.iterator();
+        iterator.next();
+        assertThrows(UnsupportedOperationException.class, iterator::remove);
+    }
+
+    private static void assertBatch(TreeSet<Integer> expected, ArraySet<Integer> set, Integer[] keys) {
+        Integer[] floors = new Integer[keys.length];
+        Integer[] ceilings = new Integer[keys.length + 1];
+        set.floorAll(keys, floors);
+        set.ceilingAll(keys, ceilings);
+        boolean all = true;
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(expected.floor(keys[i]), floors[i], "floor " + keys[i]);
+            assertEquals(expected.ceiling(keys[i]), ceilings[i], "ceiling " + keys[i]);
+            all &= expected.contains(keys[i]);
+        }
+        assertEquals(all, set.containsAll(keys));
+        Integer[] present = expected.stream().limit(keys.length).toArray(Integer[]::new);
+        assertTrue(set.containsAll(present));
+    }
+
+    private List<Integer> randomInts(int count, int bound) {
+        List<Integer> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(random.nextInt(bound));
+        }
+        return values;
+    }
+
+    /** Keys both inside and just outside of {@code [0, bound)}. */
+    private List<Integer> probes(int bound) {
+        List<Integer> probes = new ArrayList<>();
+        for (int i = -2; i < Math.min(bound + 2, 40); i++) {
+            probes.add(i);
+        }
+        for (int i = 0; i < 20; i++) {
+            probes.add(random.nextInt(bound + 4) - 2);
+        }
+        return probes;
+    }
+}
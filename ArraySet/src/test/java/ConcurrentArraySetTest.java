@@ -0,0 +1,209 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentArraySetTest {
+    private final Random random = new Random(4099);
+
+    @Test
+    void matchesTreeSetAcrossMerges() {
+        for (Comparator<Integer> comparator : Arrays.asList(null, Comparator.<Integer>reverseOrder())) {
+            List<Integer> initial = randomInts(200, 500);
+            ConcurrentArraySet<Integer> set = new ConcurrentArraySet<>(initial, comparator, 8, SearchLayout.BINARY);
+            TreeSet<Integer> expected = new TreeSet<>(comparator);
+            expected.addAll(initial);
+            for (int step = 0; step < 5000; step++) {
+                int value = random.nextInt(500);
+                if (random.nextBoolean()) {
+                    assertEquals(expected.add(value), set.add(value));
+                } else {
+                    assertEquals(expected.remove(value), set.remove(value));
+                }
+                if (step % 50 == 0) {
+                    assertSameElements(expected, set);
+                }
+            }
+            assertSameElements(expected, set);
+            assertTrue(set.getMergeCount() > 0);
+            set.flush();
+            assertSameElements(expected, set);
+            assertEquals(new ArrayList<>(expected), new ArrayList<>(set.snapshot()));
+        }
+    }
+
+    @Test
+    void removeSnapshotElementAndAddItBack() {
+        ConcurrentArraySet<Integer> set = new ConcurrentArraySet<>(List.of(1, 3, 5), null, 100, SearchLayout.BINARY);
+        assertTrue(set.remove(3));
+        assertFalse(set.contains(3));
+        assertFalse(set.remove(3));
+        assertEquals((Integer) 5, set.higher(1));
+        assertEquals((Integer) 1, set.lower(5));
+        assertEquals(List.of(1, 5), new ArrayList<>(set));
+        assertEquals(2, set.size());
+
+        assertTrue(set.add(3));
+        assertFalse(set.add(3));
+        assertTrue(set.contains(3));
+        assertEquals((Integer) 3, set.higher(1));
+        assertEquals(List.of(1, 3, 5), new ArrayList<>(set));
+        assertEquals(3, set.size());
+        assertEquals(0, set.getMergeCount());
+
+        assertTrue(set.remove(1));
+        assertTrue(set.remove(5));
+        assertEquals((Integer) 3, set.first());
+        assertEquals((Integer) 3, set.last());
+        assertEquals(List.of(3), new ArrayList<>(set.snapshot()));
+    }
+
+    @Test
+    void mergesWhenDeltaReachesThreshold() {
+        ConcurrentArraySet<Integer> set = new ConcurrentArraySet<>(List.of(0, 10, 20), null, 3, SearchLayout.BINARY);
+        set.add(1);
+        set.remove(10);
+        assertEquals(0, set.getMergeCount());
+        set.add(2);
+        assertEquals(1, set.getMergeCount());
+        assertEquals(4, set.getMergedElements());
+
+        // cancelling writes shrink the delta again
+        set.add(3);
+        set.remove(3);
+        set.remove(0);
+        set.add(0);
+        assertEquals(1, set.getMergeCount());
+
+        set.flush();
+        set.flush();
+        assertEquals(1, set.getMergeCount());
+        set.add(4);
+        assertEquals(List.of(0, 1, 2, 4, 20), new ArrayList<>(set.snapshot()));
+        assertEquals(2, set.getMergeCount());
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConcurrentArraySet<Integer>(List.of(), null, 0, SearchLayout.BINARY));
+    }
+
+    @Test
+    void emptySet() {
+        ConcurrentArraySet<Integer> set = new ConcurrentArraySet<>(List.of(7), null, 2, SearchLayout.BINARY);
+        assertEquals((Integer) 7, set.pollFirst());
+        assertThrows(NoSuchElementException.class, set::first);
+        assertThrows(NoSuchElementException.class, set::last);
+        assertNull(set.pollFirst());
+        assertNull(set.pollLast());
+        assertNull(set.ceiling(0));
+        assertTrue(set.isEmpty());
+        assertFalse(set.iterator().hasNext());
+        assertTrue(set.snapshot().isEmpty());
+    }
+
+    @Test
+    void concurrentWritersAndReaders() throws Exception {
+        final int writers = 4;
+        final int range = 2000;
+        // multiples of writers + 1 are never touched, so readers must always see them
+        List<Integer> initial = new ArrayList<>();
+        for (int i = 0; i < writers * range; i += 2) {
+            initial.add(i);
+        }
+        ConcurrentArraySet<Integer> set = new ConcurrentArraySet<>(initial, null, 64, SearchLayout.BINARY);
+        int stride = writers + 1;
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 2);
+        AtomicBoolean done = new AtomicBoolean();
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 2; r++) {
+                readers.add(executor.submit(() -> {
+                    Random local = new Random();
+                    while (!done.get()) {
+                        int stable = local.nextInt(writers * range / stride / 2) * stride * 2;
+                        assertTrue(set.contains(stable), "lost " + stable);
+                        Integer floor = set.floor(stable);
+                        assertEquals((Integer) stable, floor);
+                        int count = 0;
+                        Integer previous = null;
+                        for (Integer value : set) {
+                            assertTrue(previous == null || previous < value);
+                            previous = value;
+                            count++;
+                        }
+                        assertTrue(count >= initial.size() / stride);
+                    }
+                    return null;
+                }));
+            }
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                final int writer = w;
+                tasks.add(executor.submit(() -> {
+                    for (int round = 0; round < 3; round++) {
+                        for (int i = writer; i < writers * range; i += writers) {
+                            if (i % stride != 0) {
+                                if (i % 2 == 0) {
+                                    set.remove(i);
+                                } else {
+                                    set.add(i);
+                                }
+                            }
+                        }
+                        for (int i = writer; i < writers * range; i += writers) {
+                            if (i % stride != 0) {
+                                if (i % 2 == 0) {
+                                    set.add(i);
+                                } else {
+                                    set.remove(i);
+                                }
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+            done.set(true);
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(set.getMergeCount() > 0);
+        assertEquals(initial, new ArrayList<>(set));
+        assertEquals(initial, new ArrayList<>(set.snapshot()));
+    }
+
+    private List<Integer> randomInts(int count, int bound) {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            values.add(random.nextInt(bound));
+        }
+        return values;
+    }
+
+    private void assertSameElements(TreeSet<Integer> expected, ConcurrentArraySet<Integer> set) {
+        assertEquals(expected.size(), set.size());
+        assertEquals(new ArrayList<>(expected), new ArrayList<>(set));
+        if (expected.isEmpty()) {
+            assertThrows(NoSuchElementException.class, set::first);
+        } else {
+            assertEquals(expected.first(), set.first());
+            assertEquals(expected.last(), set.last());
+        }
+        for (int i = 0; i < 20; i++) {
+            int key = random.nextInt(520) - 10;
+            assertEquals(expected.contains(key), set.contains(key));
+            assertEquals(expected.lower(key), set.lower(key));
+            assertEquals(expected.floor(key), set.floor(key));
+            assertEquals(expected.ceiling(key), set.ceiling(key));
+            assertEquals(expected.higher(key), set.higher(key));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+import java.util.*;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Compares a {@link NavigableSet} with a {@link TreeSet} holding the same elements, descending into views. */
+final class NavigableSetAssert {
+    private NavigableSetAssert() {
+    }
+
+    /**
+     * Checks elements, navigation at every probe and, down to {@code depth} levels, the descending set
+     * and head, tail and sub-sets bounded by random probes with all combinations of inclusiveness.
+     * {@code extra} is called for every pair of sets compared.
+     */
+    static <E> void assertNavigable(NavigableSet<E> expected, NavigableSet<E> actual, List<E> probes, Random random,
+                                    int depth, BiConsumer<NavigableSet<E>, NavigableSet<E>> extra) {
+        assertSameElements(expected, actual);
+        for (E probe : probes) {
+            assertEquals(expected.contains(probe), actual.contains(probe), "contains " + probe);
+            assertEquals(expected.lower(probe), actual.lower(probe), "lower " + probe);
+            assertEquals(expected.floor(probe), actual.floor(probe), "floor " + probe);
+            assertEquals(expected.ceiling(probe), actual.ceiling(probe), "ceiling " + probe);
+            assertEquals(expected.higher(probe), actual.higher(probe), "higher " + probe);
+        }
+        extra.accept(expected, actual);
+        if (depth == 0) {
+            return;
+        }
+
+        assertNavigable(copy(expected.descendingSet()), actual.descendingSet(), probes, random, depth - 1, extra);
+        assertEquals(list(expected.descendingIterator()), list(actual.descendingIterator()));
+
+        E from = probes.get(random.nextInt(probes.size()));
+        E to = probes.get(random.nextInt(probes.size()));
+        Comparator<? super E> comparator = expected.comparator();
+        if (compare(comparator, from, to) > 0) {
+            E swap = from;
+            from = to;
+            to = swap;
+        }
+        for (boolean fromInclusive : new boolean[]{false, true}) {
+            assertNavigable(copy(expected.headSet(to, fromInclusive)), actual.headSet(to, fromInclusive),
+                    probes, random, depth - 1, extra);
+            assertNavigable(copy(expected.tailSet(from, fromInclusive)), actual.tailSet(from, fromInclusive),
+                    probes, random, depth - 1, extra);
+            for (boolean toInclusive : new boolean[]{false, true}) {
+                assertNavigable(copy(expected.subSet(from, fromInclusive, to, toInclusive)),
+                        actual.subSet(from, fromInclusive, to, toInclusive), probes, random, depth - 1, extra);
+            }
+        }
+        assertSameElements(expected.headSet(to), actual.headSet(to));
+        assertSameElements(expected.tailSet(from), actual.tailSet(from));
+        assertSameElements(expected.subSet(from, to), actual.subSet(from, to));
+        if (compare(comparator, from, to) < 0) {
+            E lower = from;
+            E upper = to;
+            assertThrows(IllegalArgumentException.class, () -> actual.subSet(upper, true, lower, true));
+        }
+    }
+
+    static <E> void assertSameElements(SortedSet<E> expected, SortedSet<E> actual) {
+        assertEquals(new ArrayList<>(expected), new ArrayList<>(actual));
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.isEmpty(), actual.isEmpty());
+        assertEquals(expected, actual);
+        assertEquals(expected.hashCode(), actual.hashCode());
+        if (expected.isEmpty()) {
+            assertThrows(NoSuchElementException.class, actual::first);
+            assertThrows(NoSuchElementException.class, actual::last);
+        } else {
+            assertEquals(expected.first(), actual.first());
+            assertEquals(expected.last(), actual.last());
+        }
+    }
+
+    /** Copy of a view as a standalone set, which, unlike the view, accepts keys outside of its range. */
+    private static <E> TreeSet<E> copy(SortedSet<E> view) {
+        return new TreeSet<>(view);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> int compare(Comparator<? super E> comparator, E a, E b) {
+        return comparator == null ? ((Comparable<? super E>) a).compareTo(b) : comparator.compare(a, b);
+    }
+
+    private static <E> List<E> list(Iterator<E> iterator) {
+        List<E> result = new ArrayList<>();
+        iterator.forEachRemaining(result::add);
+        return result;
+    }
+}
@@ -0,0 +1,237 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrimitiveArraySetTest {
+    private static final int[] SIZES = {0, 1, 2, 15, 16, 17, 33, 100, 1000};
+    private static final int ABSENT = 0xDEAD;
+
+    private final Random random = new Random(6151);
+
+    @Test
+    void intsMatchTreeSet() {
+        for (SearchLayout layout : SearchLayout.values()) {
+            for (int size : SIZES) {
+                int[] values = randomInts(size, size * 2 + 1);
+                TreeSet<Integer> expected = new TreeSet<>();
+                Arrays.stream(values).forEach(expected::add);
+                IntArraySet actual = new IntArraySet(values, layout);
+                List<Integer> probes = new ArrayList<>();
+                for (long probe : probes(size * 2 + 1)) {
+                    probes.add((int) probe);
+                }
+                NavigableSetAssert.assertNavigable(expected, actual, probes, random, 2,
+                        (e, a) -> assertInts(e, (IntArraySet) a, probes));
+            }
+        }
+    }
+
+    @Test
+    void longsMatchTreeSet() {
+        for (SearchLayout layout : SearchLayout.values()) {
+            for (int size : SIZES) {
+                long[] values = randomLongs(size, size * 2 + 1);
+                TreeSet<Long> expected = new TreeSet<>();
+                Arrays.stream(values).forEach(expected::add);
+                LongArraySet actual = new LongArraySet(values, layout);
+                List<Long> probes = probes(size * 2 + 1);
+                NavigableSetAssert.assertNavigable(expected, actual, probes, random, 2,
+                        (e, a) -> assertLongs(e, (LongArraySet) a, probes));
+            }
+        }
+    }
+
+    @Test
+    void extremeValues() {
+        int[] ints = {Integer.MAX_VALUE, 0, Integer.MIN_VALUE, -1, 1, Integer.MIN_VALUE + 1};
+        IntArraySet intSet = new IntArraySet(ints);
+        assertArrayEquals(new int[]{Integer.MIN_VALUE, Integer.MIN_VALUE + 1, -1, 0, 1, Integer.MAX_VALUE},
+                intSet.toIntArray());
+        assertEquals(Integer.MAX_VALUE, intSet.floorInt(Integer.MAX_VALUE, ABSENT));
+        assertEquals(ABSENT, intSet.higherInt(Integer.MAX_VALUE, ABSENT));
+        assertEquals(ABSENT, intSet.lowerInt(Integer.MIN_VALUE, ABSENT));
+        assertEquals(Integer.MIN_VALUE, intSet.descendingSet().lastInt());
+
+        long[] longs = {Long.MAX_VALUE, Long.MIN_VALUE, 0, Long.MAX_VALUE - 1};
+        LongArraySet longSet = new LongArraySet(longs, SearchLayout.BLOCK_INDEX);
+        assertArrayEquals(new long[]{Long.MIN_VALUE, 0, Long.MAX_VALUE - 1, Long.MAX_VALUE}, longSet.toLongArray());
+        assertEquals(Long.MAX_VALUE - 1, longSet.lowerLong(Long.MAX_VALUE, ABSENT));
+        assertEquals(Long.MIN_VALUE, longSet.ceilingLong(Long.MIN_VALUE, ABSENT));
+        assertEquals(ABSENT, longSet.higherLong(Long.MAX_VALUE, ABSENT));
+        assertEquals(List.of(Long.MAX_VALUE, Long.MAX_VALUE - 1),
+                new ArrayList<>(longSet.descendingSet().headSet(0L, false)));
+    }
+
+    @Test
+    void deduplicatesAndWraps() {
+        assertArrayEquals(new int[]{1, 2, 3}, new IntArraySet(3, 1, 3, 2, 1).toIntArray());
+        assertArrayEquals(new long[]{-5, 7}, new LongArraySet(List.of(7L, -5L, 7L)).toLongArray());
+
+        int[] values = {4, 4, 6, 9, 9};
+        IntArraySet wrapped = IntArraySet.wrap(values, false);
+        assertArrayEquals(new int[]{4, 6, 9}, wrapped.toIntArray());
+        // an ordered array is deduplicated in place and not copied
+        values[1] = 5;
+        assertTrue(wrapped.containsInt(5));
+
+        long[] trusted = {1, 3, 5};
+        LongArraySet trustedSet = LongArraySet.wrap(trusted, true, SearchLayout.BLOCK_INDEX);
+        trusted[2] = 4;
+        assertEquals(4, trustedSet.lastLong());
+
+        int[] source = {1, 2, 3};
+        IntArraySet copied = new IntArraySet(source);
+        source[0] = 0;
+        assertEquals(1, copied.firstInt());
+    }
+
+    @Test
+    void batchSearch() {
+        for (SearchLayout layout : SearchLayout.values()) {
+            for (int size : SIZES) {
+                TreeSet<Long> ascending = new TreeSet<>();
+                long[] values = randomLongs(size, size * 2 + 1);
+                Arrays.stream(values).forEach(ascending::add);
+                LongArraySet set = new LongArraySet(values, layout);
+                IntArraySet intSet = new IntArraySet(Arrays.stream(values).mapToInt(v -> (int) v).toArray(), layout);
+                for (boolean reversed : new boolean[]{false, true}) {
+                    NavigableSet<Long> expected = reversed ? ascending.descendingSet() : ascending;
+                    LongArraySet actual = reversed ? set.descendingSet() : set;
+                    IntArraySet actualInts = reversed ? intSet.descendingSet() : intSet;
+                    for (int count : new int[]{0, 1, 3, 4, 7, 64}) {
+                        long[] keys = new long[count];
+                        for (int i = 0; i < count; i++) {
+                            keys[i] = random.nextInt(size * 2 + 5) - 2;
+                        }
+                        assertBatch(expected, actual, actualInts, keys);
+                        Arrays.sort(keys);
+                        assertBatch(expected, actual, actualInts, keys);
+                    }
+                }
+            }
+        }
+        LongArraySet set = new LongArraySet(1, 2);
+        assertThrows(IllegalArgumentException.class, () -> set.ceilingAll(new long[]{1, 2}, new long[1], ABSENT));
+    }
+
+    @Test
+    void intersect() {
+        for (int size : SIZES) {
+            long[] left = randomLongs(size, size * 2 + 1);
+            long[] right = randomLongs(size, size * 2 + 1);
+            TreeSet<Long> common = new TreeSet<>();
+            Arrays.stream(left).forEach(common::add);
+            common.retainAll(Arrays.stream(right).boxed().collect(Collectors.toSet()));
+            LongArraySet set = new LongArraySet(left);
+            LongArraySet other = new LongArraySet(right, SearchLayout.BLOCK_INDEX);
+            assertEquals(new ArrayList<>(common), new ArrayList<>(set.intersect(other)));
+            assertEquals(new ArrayList<>(common.descendingSet()),
+                    new ArrayList<>(set.descendingSet().intersect(other)));
+            assertEquals(new ArrayList<>(common.headSet(7L)), new ArrayList<>(set.headSet(7L, false).intersect(other)));
+        }
+    }
+
+    @Test
+    void immutable() {
+        IntArraySet set = new IntArraySet(1, 2, 3);
+        assertThrows(UnsupportedOperationException.class, set::pollFirst);
+        assertThrows(UnsupportedOperationException.class, set::pollLast);
+        assertThrows(UnsupportedOperationException.class, () -> set.add(4));
+        assertThrows(NoSuchElementException.class, () -> new IntArraySet().firstInt());
+        assertThrows(NoSuchElementException.class, () -> new LongArraySet().lastLong());
+        PrimitiveIterator.OfInt iterator = set.descendingSet().headSet(3, false).iterator();
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::nextInt);
+    }
+
+    private static void assertInts(NavigableSet<Integer> expected, IntArraySet actual, List<Integer> probes) {
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), actual.toIntArray());
+        if (!expected.isEmpty()) {
+            assertEquals((int) expected.first(), actual.firstInt());
+            assertEquals((int) expected.last(), actual.lastInt());
+        }
+        for (int probe : probes) {
+            assertEquals(expected.contains(probe), actual.containsInt(probe));
+            assertEquals(orAbsent(expected.lower(probe)), actual.lowerInt(probe, ABSENT));
+            assertEquals(orAbsent(expected.floor(probe)), actual.floorInt(probe, ABSENT));
+            assertEquals(orAbsent(expected.ceiling(probe)), actual.ceilingInt(probe, ABSENT));
+            assertEquals(orAbsent(expected.higher(probe)), actual.higherInt(probe, ABSENT));
+        }
+        PrimitiveIterator.OfInt iterator = actual.descendingIterator();
+        for (Iterator<Integer> it = expected.descendingIterator(); it.hasNext(); ) {
+            assertEquals((int) it.next(), iterator.nextInt());
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    private static void assertLongs(NavigableSet<Long> expected, LongArraySet actual, List<Long> probes) {
+        assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(), actual.toLongArray());
+        if (!expected.isEmpty()) {
+            assertEquals((long) expected.first(), actual.firstLong());
+            assertEquals((long) expected.last(), actual.lastLong());
+        }
+        for (long probe : probes) {
+            assertEquals(expected.contains(probe), actual.containsLong(probe));
+            assertEquals(orAbsent(expected.lower(probe)), actual.lowerLong(probe, ABSENT));
+            assertEquals(orAbsent(expected.floor(probe)), actual.floorLong(probe, ABSENT));
+            assertEquals(orAbsent(expected.ceiling(probe)), actual.ceilingLong(probe, ABSENT));
+            assertEquals(orAbsent(expected.higher(probe)), actual.higherLong(probe, ABSENT));
+        }
+        assertFalse(actual.contains((Object) 1), "an Integer is never a member of a set of longs");
+    }
+
+    private static void assertBatch(NavigableSet<Long> expected, LongArraySet actual, IntArraySet actualInts,
+                                    long[] keys) {
+        long[] floors = new long[keys.length];
+        long[] ceilings = new long[keys.length + 1];
+        actual.floorAll(keys, floors, ABSENT);
+        actual.ceilingAll(keys, ceilings, ABSENT);
+        int[] intKeys = Arrays.stream(keys).mapToInt(key -> (int) key).toArray();
+        int[] intFloors = new int[keys.length];
+        int[] intCeilings = new int[keys.length];
+        actualInts.floorAll(intKeys, intFloors, ABSENT);
+        actualInts.ceilingAll(intKeys, intCeilings, ABSENT);
+        boolean all = true;
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(orAbsent(expected.floor(keys[i])), floors[i], "floor " + keys[i]);
+            assertEquals(orAbsent(expected.ceiling(keys[i])), ceilings[i], "ceiling " + keys[i]);
+            assertEquals(orAbsent(expected.floor(keys[i])), intFloors[i], "int floor " + keys[i]);
+            assertEquals(orAbsent(expected.ceiling(keys[i])), intCeilings[i], "int ceiling " + keys[i]);
+            all &= expected.contains(keys[i]);
+        }
+        assertEquals(all, actual.containsAll(keys));
+        assertEquals(all, actualInts.containsAll(intKeys));
+        assertTrue(actual.containsAll(expected.stream().limit(keys.length).mapToLong(Long::longValue).toArray()));
+    }
+
+    private static long orAbsent(Number value) {
+        return value == null ? ABSENT : value.longValue();
+    }
+
+    private int[] randomInts(int count, int bound) {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = random.nextInt(bound);
+        }
+        return values;
+    }
+
+    private long[] randomLongs(int count, int bound) {
+        return Arrays.stream(randomInts(count, bound)).asLongStream().toArray();
+    }
+
+    /** Keys both inside and just outside of {@code [0, bound)}. */
+    private List<Long> probes(int bound) {
+        List<Long> probes = new ArrayList<>();
+        for (long i = -2; i < Math.min(bound + 2, 40); i++) {
+            probes.add(i);
+        }
+        for (int i = 0; i < 20; i++) {
+            probes.add((long) random.nextInt(bound + 4) - 2);
+        }
+        return probes;
+    }
+}
@@ -0,0 +1,31 @@
+package walk;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+/** CRC32C checksum, hardware-accelerated on most platforms. */
+public class Crc32cHasher implements FileHasher {
+    public static final String NAME = "crc32c";
+
+    private final CRC32C crc = new CRC32C();
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void reset() {
+        crc.reset();
+    }
+
+    @Override
+    public void update(ByteBuffer data) {
+        crc.update(data.duplicate());
+    }
+
+    @Override
+    public long getValue() {
+        return crc.getValue();
+    }
+}
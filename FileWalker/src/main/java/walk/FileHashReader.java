@@ -0,0 +1,83 @@
+package walk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+public class FileHashReader {
+    /** Files of at least this many bytes are memory-mapped instead of read. */
+    public static final long DEFAULT_MAP_THRESHOLD = 1L << 20;
+
+    private final int bufferSize = 64 * 1024;
+    private final long mapChunkSize = 1L << 30;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+    private final long mapThreshold;
+    private final FileHasher hasher;
+
+    /** Reader hashing with {@link FileHasher#DEFAULT}. */
+    public FileHashReader() {
+        this(DEFAULT_MAP_THRESHOLD);
+    }
+
+    public FileHashReader(long mapThreshold) {
+        this(mapThreshold, FileHasher.forName(FileHasher.DEFAULT).get());
+    }
+
+    public FileHashReader(long mapThreshold, FileHasher hasher) {
+        if (mapThreshold < 0) {
+            throw new IllegalArgumentException("Expected non-negative map threshold");
+        }
+        this.mapThreshold = mapThreshold;
+        this.hasher = Objects.requireNonNull(hasher);
+    }
+
+    /** Name of the hash algorithm used by this reader. */
+    public String algorithm() {
+        return hasher.name();
+    }
+
+    /** Reads the whole file and returns its hash, or zero if the file can't be read. */
+    public long hash(Path file) {
+        try {
+            return read(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /** Reads the whole file and returns its hash. */
+    public long read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size >= mapThreshold && size > 0) {
+                return hashMapped(channel, size);
+            }
+            return hashRead(channel);
+        }
+    }
+
+    private long hashRead(FileChannel channel) throws IOException {
+        hasher.reset();
+        buffer.clear();
+        while (channel.read(buffer) >= 0) {
+            buffer.flip();
+            hasher.update(buffer);
+            buffer.clear();
+        }
+        return hasher.getValue();
+    }
+
+    private long hashMapped(FileChannel channel, long size) throws IOException {
+        hasher.reset();
+        for (long position = 0; position < size; position += mapChunkSize) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(mapChunkSize, size - position));
+            hasher.update(mapped);
+        }
+        return hasher.getValue();
+    }
+}
@@ -0,0 +1,39 @@
+package walk;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Incremental hash of file contents. Instances are stateful and not thread-safe:
+ * each reader thread owns its own hasher.
+ */
+public interface FileHasher {
+    /** Name of the algorithm, as accepted by {@link #forName(String)}. */
+    String name();
+
+    /** Starts hashing a new file. */
+    void reset();
+
+    /** Consumes bytes between position and limit of {@code data}, leaving the buffer unchanged. */
+    void update(ByteBuffer data);
+
+    /** Returns hash of all bytes consumed since the last {@link #reset()}. */
+    long getValue();
+
+    /**
+     * Name of the algorithm used when none is specified: PJW, so output matches earlier versions of the walker.
+     * Faster algorithms are opt-in.
+     */
+    String DEFAULT = PjwHasher.NAME;
+
+    /** Returns factory of hashers with the given name, or {@code null} if there is no such algorithm. */
+    static Supplier<FileHasher> forName(String name) {
+        final Map<String, Supplier<FileHasher>> hashers = Map.of(
+                PjwHasher.NAME, PjwHasher::new,
+                Word64Hasher.NAME, Word64Hasher::new,
+                Crc32cHasher.NAME, Crc32cHasher::new
+        );
+        return hashers.get(name);
+    }
+}
@@ -0,0 +1,196 @@
+package walk;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistent map from absolute file path to its size, modification time, file key and hash.
+ * Files whose attributes did not change since the previous run are answered without reading them.
+ *
+ * <p>Cache built with another hash algorithm is discarded.
+ *
+ * <p>File format: magic, version, hash algorithm name and entry count, followed by entries of
+ * path length and UTF-8 bytes, size, modification time in nanoseconds,
+ * file key length and UTF-8 bytes, and the hash.
+ */
+public class HashCache {
+    private static final int MAGIC = 0x57484331;
+    private static final int VERSION = 2;
+
+    private final String algorithm;
+    private final Map<String, Entry> previous = new ConcurrentHashMap<>();
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+
+    private HashCache(String algorithm) {
+        this.algorithm = Objects.requireNonNull(algorithm);
+    }
+
+    /** Loads cache of {@code algorithm} hashes from the file. Missing or malformed file gives an empty cache. */
+    public static HashCache load(Path cacheFile, String algorithm) {
+        HashCache cache = new HashCache(algorithm);
+        try (CacheInput in = new CacheInput(
+                new BufferedInputStream(Files.newInputStream(cacheFile), 1 << 16), Files.size(cacheFile))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readString().equals(algorithm)) {
+                return cache;
+            }
+            final int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String path = in.readString();
+                cache.previous.put(path, new Entry(in.readLong(), in.readLong(), in.readString(), in.readLong()));
+            }
+        } catch (NoSuchFileException | FileNotFoundException e) {
+            return cache;
+        } catch (IOException e) {
+            cache.previous.clear();
+        }
+        return cache;
+    }
+
+    /**
+     * Returns hash of the file, reading it only if it has changed since it was cached.
+     * A file that can't be read hashes to zero and is dropped from the cache.
+     */
+    public long hash(Path file, BasicFileAttributes attrs, FileHashReader hashReader) {
+        if (!hashReader.algorithm().equals(algorithm)) {
+            throw new IllegalArgumentException("Cache holds " + algorithm + " hashes");
+        }
+        final String path = file.toAbsolutePath().normalize().toString();
+        final long size = attrs.size();
+        final long modified = attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+        final String fileKey = attrs.fileKey() == null ? "" : attrs.fileKey().toString();
+        Entry entry = previous.get(path);
+        if (entry == null || entry.size != size || entry.modified != modified || !entry.fileKey.equals(fileKey)) {
+            try {
+                entry = new Entry(size, modified, fileKey, hashReader.read(file));
+            } catch (IOException e) {
+                // A stale entry must neither be saved nor answer for the old attributes
+                previous.remove(path);
+                current.remove(path);
+                return 0;
+            }
+        }
+        current.put(path, entry);
+        return entry.hash;
+    }
+
+    /**
+     * Writes entries to the file. Entries not visited during this run are kept
+     * only while their files still exist.
+     */
+    public void save(Path cacheFile) throws IOException {
+        for (Map.Entry<String, Entry> entry : previous.entrySet()) {
+            if (!current.containsKey(entry.getKey()) && Files.exists(Path.of(entry.getKey()))) {
+                current.put(entry.getKey(), entry.getValue());
+            }
+        }
+        Path parent = cacheFile.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(parent, cacheFile.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writeString(out, algorithm);
+                out.writeInt(current.size());
+                for (Map.Entry<String, Entry> entry : current.entrySet()) {
+                    writeString(out, entry.getKey());
+                    out.writeLong(entry.getValue().size);
+                    out.writeLong(entry.getValue().modified);
+                    writeString(out, entry.getValue().fileKey);
+                    out.writeLong(entry.getValue().hash);
+                }
+            }
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /** Cache file reader that rejects string lengths exceeding the rest of the file before allocating. */
+    private static class CacheInput extends DataInputStream {
+        private final CountingInputStream counter;
+        private final long fileSize;
+
+        private CacheInput(InputStream in, long fileSize) {
+            this(new CountingInputStream(in), fileSize);
+        }
+
+        private CacheInput(CountingInputStream counter, long fileSize) {
+            super(counter);
+            this.counter = counter;
+            this.fileSize = fileSize;
+        }
+
+        private String readString() throws IOException {
+            final int length = readInt();
+            if (length < 0 || length > fileSize - counter.count) {
+                throw new IOException("Malformed cache entry");
+            }
+            byte[] bytes = new byte[length];
+            readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private long count = 0;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    private static class Entry {
+        private final long size;
+        private final long modified;
+        private final String fileKey;
+        private final long hash;
+
+        private Entry(long size, long modified, String fileKey, long hash) {
+            this.size = size;
+            this.modified = modified;
+            this.fileKey = Objects.requireNonNull(fileKey);
+            this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package walk;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.FileVisitor;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Walks directories on the calling thread, hashes files on a fixed pool of workers
+ * and writes results from a separate writer thread in the order files were visited.
+ */
+public class ParallelFileVisitor implements FileVisitor<Path>, AutoCloseable {
+    private static final Future<String> END = CompletableFuture.completedFuture(null);
+    /** Upper bound on lines waiting for the writer, however many threads there are. */
+    private static final int MAX_PENDING = 1 << 16;
+
+    private final ExecutorService workers;
+    private final ThreadLocal<FileHashReader> hashReaders;
+    private final HashCache hashCache;
+    private final BlockingQueue<Future<String>> pending;
+    private final Thread writer;
+    private volatile IOException writeException;
+    /** Whether {@link #writeException} was already thrown to the walking thread. */
+    private boolean failureReported = false;
+
+    public ParallelFileVisitor(BufferedWriter bufferedWriter, int threads) {
+        this(bufferedWriter, threads, FileHashReader::new);
+    }
+
+    public ParallelFileVisitor(BufferedWriter bufferedWriter, int threads, Supplier<FileHashReader> hashReaders) {
+        this(bufferedWriter, threads, hashReaders, null);
+    }
+
+    /** Visitor answering unchanged files from {@code hashCache}, if it is not {@code null}. */
+    public ParallelFileVisitor(BufferedWriter bufferedWriter, int threads, Supplier<FileHashReader> hashReaders,
+                               HashCache hashCache) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Expected positive number of threads");
+        }
+        this.hashReaders = ThreadLocal.withInitial(hashReaders);
+        this.hashCache = hashCache;
+        this.workers = Executors.newFixedThreadPool(threads);
+        this.pending = new ArrayBlockingQueue<>((int) Math.min(threads * 4L, MAX_PENDING));
+        this.writer = new Thread(() -> writeResults(bufferedWriter));
+        this.writer.start();
+    }
+
+    @Override
+    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+        return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+        enqueue(workers.submit(() -> FileVisitorImpl.formatLine(hash(file, attrs), file)));
+        return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
+        enqueue(CompletableFuture.completedFuture(FileVisitorImpl.formatLine(0L, file)));
+        return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+        return FileVisitResult.CONTINUE;
+    }
+
+    /**
+     * Waits until every visited file is written and stops all threads.
+     * Throws the write failure unless it was already thrown while visiting.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            // The writer keeps draining after a failure, so END is always taken and the thread ends.
+            pending.put(END);
+            writer.join();
+        } catch (InterruptedException e) {
+            writer.interrupt();
+            Thread.currentThread().interrupt();
+        } finally {
+            workers.shutdownNow();
+        }
+        if (writeException != null && !failureReported) {
+            failureReported = true;
+            throw writeException;
+        }
+    }
+
+    private long hash(Path file, BasicFileAttributes attrs) {
+        final FileHashReader hashReader = hashReaders.get();
+        return hashCache == null ? hashReader.hash(file) : hashCache.hash(file, attrs, hashReader);
+    }
+
+    private void enqueue(Future<String> line) throws IOException {
+        if (writeException != null) {
+            failureReported = true;
+            throw writeException;
+        }
+        try {
+            pending.put(line);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while walking", e);
+        }
+    }
+
+    private void writeResults(BufferedWriter bufferedWriter) {
+        try {
+            Future<String> line;
+            while ((line = pending.take()) != END) {
+                if (writeException != null) {
+                    continue;
+                }
+                try {
+                    bufferedWriter.write(line.get());
+                } catch (IOException e) {
+                    writeException = e;
+                } catch (ExecutionException e) {
+                    writeException = new IOException(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            writeException = new IOException("Interrupted while writing", e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package walk;
+
+import java.nio.ByteBuffer;
+
+/** Byte-at-a-time 64-bit PJW hash. */
+public class PjwHasher implements FileHasher {
+    public static final String NAME = "pjw";
+
+    private final long initialValue = 0L;
+    private long hash = initialValue;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void reset() {
+        hash = initialValue;
+    }
+
+    @Override
+    public void update(ByteBuffer data) {
+        hash = hashPjw(hash, data);
+    }
+
+    @Override
+    public long getValue() {
+        return hash;
+    }
+
+    private static long hashPjw(final long prevHash, final ByteBuffer data) {
+        final long bitesSize = 64L;
+        final long highBits = 0xFFFF_FFFF_FFFF_FFFFL << (bitesSize / 8L * 7L);
+        long hash = prevHash;
+        for (int i = data.position(), limit = data.limit(); i < limit; i++) {
+            hash = (hash << (bitesSize / 8L)) + (data.get(i) & 0xFF);
+            final long hashAndHighBits;
+            if ((hashAndHighBits = hash & highBits) != 0) {
+                hash ^= hashAndHighBits >> (bitesSize / 4 * 3);
+                hash &= ~hashAndHighBits;
+            }
+        }
+        return hash;
+    }
+}
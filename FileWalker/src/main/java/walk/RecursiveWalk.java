@@ -1,16 +1,79 @@
 package walk;
 
 import java.io.*;
+import java.nio.file.FileVisitor;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/** Writes hashes of all files under the directories listed in the input file, see {@link #USAGE}. */
 public class RecursiveWalk {
+    /** Largest accepted {@code --threads} value. */
+    static final int MAX_THREADS = 4096;
+
+    static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: RecursiveWalk [options] <input file> <output file>",
+            "Options:",
+            "  --threads N                 hash files on N threads, 1 to " + MAX_THREADS,
+            "  --map-threshold BYTES       memory-map files of at least BYTES bytes",
+            "  --hash pjw|word64|crc32c    hash algorithm, " + FileHasher.DEFAULT + " by default",
+            "  --cache FILE                reuse hashes of unchanged files between runs");
+
     public static void main(String[] args) {
+        int threads = 0;
+        long mapThreshold = FileHashReader.DEFAULT_MAP_THRESHOLD;
+        Path cacheFile = null;
+        String algorithm = FileHasher.DEFAULT;
+        int optionsEnd = 0;
+        while (args.length - optionsEnd > 2 && args[optionsEnd].startsWith("--")) {
+            final String value = args[optionsEnd + 1];
+            switch (args[optionsEnd]) {
+                case "--threads":
+                    threads = parseThreads(value);
+                    if (threads <= 0) {
+                        System.out.println("Expected number of threads from 1 to " + MAX_THREADS);
+                        System.out.println(USAGE);
+                        return;
+                    }
+                    break;
+                case "--map-threshold":
+                    mapThreshold = parseNonNegative(value);
+                    if (mapThreshold < 0) {
+                        System.out.println("Expected non-negative map threshold");
+                        return;
+                    }
+                    break;
+                case "--hash":
+                    if (FileHasher.forName(value) == null) {
+                        System.out.println("Unknown hash algorithm " + value);
+                        return;
+                    }
+                    algorithm = value;
+                    break;
+                case "--cache":
+                    try {
+                        cacheFile = Path.of(value);
+                    } catch (InvalidPathException e) {
+                        System.out.println("Invalid cache file");
+                        return;
+                    }
+                    break;
+                default:
+                    System.out.println("Unknown option " + args[optionsEnd]);
+                    System.out.println(USAGE);
+                    return;
+            }
+            optionsEnd += 2;
+        }
+        args = Arrays.copyOfRange(args, optionsEnd, args.length);
         if(args.length != 2) {
             System.out.println("Expected 2 arguments");
+            System.out.println(USAGE);
             return;
         }
         File input = new File(args[0]);
@@ -22,18 +85,53 @@ public class RecursiveWalk {
                 e.printStackTrace();
             }
         }
+        final long readerMapThreshold = mapThreshold;
+        final Supplier<FileHasher> hashers = FileHasher.forName(algorithm);
+        final Supplier<FileHashReader> hashReaders = () -> new FileHashReader(readerMapThreshold, hashers.get());
+        final HashCache hashCache = cacheFile == null ? null : HashCache.load(cacheFile, algorithm);
         try (BufferedReader bufferedReader = new BufferedReader(new FileReader(args[0]))) {
             try (BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(args[1]))) {
-                String currentDir;
-                FileVisitorImpl fileVisitor = new FileVisitorImpl(bufferedWriter);
-                while ((currentDir = bufferedReader.readLine()) != null) {
-                    Files.walkFileTree(Path.of(currentDir), fileVisitor);
+                if (threads > 0) {
+                    try (ParallelFileVisitor fileVisitor =
+                                 new ParallelFileVisitor(bufferedWriter, threads, hashReaders, hashCache)) {
+                        walk(bufferedReader, fileVisitor);
+                    }
+                } else {
+                    walk(bufferedReader, new FileVisitorImpl(bufferedWriter, hashReaders.get(), hashCache));
                 }
             }
+            if (hashCache != null) {
+                hashCache.save(cacheFile);
+            }
         } catch (FileNotFoundException e) {
             System.out.println("File is not found");
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
+
+    /** Returns the thread count, or zero if it is not a number from 1 to {@link #MAX_THREADS}. */
+    private static int parseThreads(String value) {
+        try {
+            final int threads = Integer.parseInt(value);
+            return threads <= MAX_THREADS ? Math.max(threads, 0) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static long parseNonNegative(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void walk(BufferedReader bufferedReader, FileVisitor<Path> fileVisitor) throws IOException {
+        String currentDir;
+        while ((currentDir = bufferedReader.readLine()) != null) {
+            Files.walkFileTree(Path.of(currentDir), fileVisitor);
+        }
+    }
 }
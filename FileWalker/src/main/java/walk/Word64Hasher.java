@@ -0,0 +1,84 @@
+package walk;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Word-at-a-time 64-bit hash. Not FNV-1a: it only borrows the FNV offset basis and prime.
+ * The input is read as little-endian 64-bit words, with a final partial word zero-padded.
+ * Each word is mixed as {@code hash = rotl((hash ^ word) * PRIME, 31)}.
+ * The result is the hash xor the total length in bytes, passed through the MurmurHash3 fmix64 finalizer.
+ */
+public class Word64Hasher implements FileHasher {
+    public static final String NAME = "word64";
+
+    private static final long OFFSET_BASIS = 0xCBF2_9CE4_8422_2325L;
+    private static final long PRIME = 0x0000_0100_0000_01B3L;
+
+    private long hash;
+    private long length;
+    private long tail;
+    private int tailSize;
+
+    public Word64Hasher() {
+        reset();
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void reset() {
+        hash = OFFSET_BASIS;
+        length = 0;
+        tail = 0;
+        tailSize = 0;
+    }
+
+    @Override
+    public void update(ByteBuffer data) {
+        int i = data.position();
+        final int limit = data.limit();
+        length += limit - i;
+        while (tailSize != 0 && i < limit) {
+            addTailByte(data.get(i++));
+        }
+        final ByteBuffer words = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        for (; i + Long.BYTES <= limit; i += Long.BYTES) {
+            mix(words.getLong(i));
+        }
+        while (i < limit) {
+            addTailByte(data.get(i++));
+        }
+    }
+
+    @Override
+    public long getValue() {
+        long result = hash;
+        if (tailSize != 0) {
+            result = Long.rotateLeft((result ^ tail) * PRIME, 31);
+        }
+        result ^= length;
+        result ^= result >>> 33;
+        result *= 0xFF51_AFD7_ED55_8CCDL;
+        result ^= result >>> 33;
+        result *= 0xC4CE_B9FE_1A85_EC53L;
+        result ^= result >>> 33;
+        return result;
+    }
+
+    private void addTailByte(byte value) {
+        tail |= (value & 0xFFL) << (tailSize * Byte.SIZE);
+        if (++tailSize == Long.BYTES) {
+            mix(tail);
+            tail = 0;
+            tailSize = 0;
+        }
+    }
+
+    private void mix(long word) {
+        hash = Long.rotateLeft((hash ^ word) * PRIME, 31);
+    }
+}
@@ -0,0 +1,82 @@
+package walk;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileHasherTest {
+    private static final String[] INPUTS = {
+            "", "a", "abcdefgh", "123456789", "The quick brown fox jumps over the lazy dog"
+    };
+
+    @Test
+    void pjw() {
+        assertKnownAnswers(PjwHasher.NAME,
+                0x0000000000000000L, 0x0000000000000061L, 0x0062636465660668L,
+                0x0033343536060a39L, 0x0018727466396967L);
+    }
+
+    @Test
+    void word64() {
+        assertKnownAnswers(Word64Hasher.NAME,
+                0xefd01f60ba992926L, 0xc6af5976a13d3b76L, 0x89ced65606d539bfL,
+                0xc63160aaad4f8bdbL, 0xef9a7ded0b5bf34eL);
+    }
+
+    @Test
+    void crc32c() {
+        // 0xe3069283 is the standard CRC-32C check value of "123456789"
+        assertKnownAnswers(Crc32cHasher.NAME,
+                0x00000000L, 0xc1d04330L, 0x0a9421b7L,
+                0xe3069283L, 0x22620404L);
+    }
+
+    /** 1000 bytes: whole words and a tail for word64, fed in uneven pieces to cross word boundaries. */
+    @Test
+    void longInput() {
+        final byte[] bytes = new byte[1000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (i * 31 + 7);
+        }
+        assertKnownAnswer(PjwHasher.NAME, bytes, 0x0005f6b62d4cdb00L);
+        assertKnownAnswer(Word64Hasher.NAME, bytes, 0x467b4567ac11d30eL);
+        assertKnownAnswer(Crc32cHasher.NAME, bytes, 0xff52ee97L);
+    }
+
+    @Test
+    void defaultAlgorithmIsPjw() {
+        assertEquals(PjwHasher.NAME, FileHasher.DEFAULT);
+        assertEquals(PjwHasher.NAME, new FileHashReader().algorithm());
+        assertNull(FileHasher.forName("fnv1a64"));
+    }
+
+    private static void assertKnownAnswer(String algorithm, byte[] bytes, long expected) {
+        final FileHasher hasher = FileHasher.forName(algorithm).get();
+        hasher.reset();
+        for (int from = 0, step = 1; from < bytes.length; from += step, step = step % 13 + 2) {
+            hasher.update(ByteBuffer.wrap(bytes, from, Math.min(step, bytes.length - from)));
+        }
+        assertEquals(expected, hasher.getValue(), algorithm + " of long input");
+    }
+
+    private static void assertKnownAnswers(String algorithm, long... expected) {
+        final FileHasher hasher = FileHasher.forName(algorithm).get();
+        assertEquals(algorithm, hasher.name());
+        for (int i = 0; i < INPUTS.length; i++) {
+            final byte[] bytes = INPUTS[i].getBytes(StandardCharsets.US_ASCII);
+            hasher.reset();
+            hasher.update(ByteBuffer.wrap(bytes));
+            assertEquals(expected[i], hasher.getValue(), algorithm + " of \"" + INPUTS[i] + "\"");
+
+            // Same answer when the bytes arrive in pieces, as they do from the read loop.
+            hasher.reset();
+            for (int from = 0; from < bytes.length; from += 3) {
+                hasher.update(ByteBuffer.wrap(bytes, from, Math.min(3, bytes.length - from)));
+            }
+            assertEquals(expected[i], hasher.getValue(), algorithm + " of \"" + INPUTS[i] + "\" in pieces");
+        }
+    }
+}
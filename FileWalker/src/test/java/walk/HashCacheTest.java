@@ -0,0 +1,157 @@
+package walk;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashCacheTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void warmRunReusesHashes() throws IOException {
+        final List<Path> files = createFiles(5);
+        final List<Long> cold = hashAll(files, PjwHasher.NAME, 5);
+        assertEquals(cold, hashAll(files, PjwHasher.NAME, 0));
+        assertEquals(uncached(files, PjwHasher.NAME), cold);
+    }
+
+    @Test
+    void changedFileIsRehashed() throws IOException {
+        final List<Path> files = createFiles(3);
+        final List<Long> cold = hashAll(files, PjwHasher.NAME, 3);
+        Files.writeString(files.get(1), "changed contents");
+        final List<Long> warm = hashAll(files, PjwHasher.NAME, 1);
+        assertEquals(uncached(files, PjwHasher.NAME), warm);
+        assertNotEquals(cold.get(1), warm.get(1));
+        assertEquals(cold.get(0), warm.get(0));
+    }
+
+    @Test
+    void deletedFileIsPruned() throws IOException {
+        final List<Path> files = createFiles(2);
+        hashAll(files, PjwHasher.NAME, 2);
+        final Path deleted = files.get(0);
+        final BasicFileAttributes attrs = Files.readAttributes(deleted, BasicFileAttributes.class);
+        Files.delete(deleted);
+        // Saving without visiting the deleted file must drop it rather than carry it over.
+        HashCache.load(cacheFile(), PjwHasher.NAME).save(cacheFile());
+
+        final CountingReader reader = new CountingReader(PjwHasher.NAME);
+        assertEquals(0, HashCache.load(cacheFile(), PjwHasher.NAME).hash(deleted, attrs, reader));
+        assertEquals(1, reader.reads, "Pruned entry must not answer for the old attributes");
+    }
+
+    @Test
+    void unreadableFileIsDropped() throws IOException {
+        final List<Path> files = createFiles(2);
+        hashAll(files, PjwHasher.NAME, 2);
+        final Path failed = files.get(0);
+        final BasicFileAttributes attrs = Files.readAttributes(failed, BasicFileAttributes.class);
+        Files.writeString(failed, "changed contents");
+
+        final HashCache cache = HashCache.load(cacheFile(), PjwHasher.NAME);
+        final CountingReader failing = new FailingReader(PjwHasher.NAME);
+        assertEquals(0, cache.hash(failed, Files.readAttributes(failed, BasicFileAttributes.class), failing));
+        assertEquals(1, failing.reads);
+        cache.save(cacheFile());
+
+        final CountingReader reader = new CountingReader(PjwHasher.NAME);
+        HashCache.load(cacheFile(), PjwHasher.NAME).hash(failed, attrs, reader);
+        assertEquals(1, reader.reads, "Entry of an unreadable file must not be carried over");
+        assertEquals(uncached(files, PjwHasher.NAME), hashAll(files, PjwHasher.NAME, 1));
+    }
+
+    @Test
+    void unvisitedExistingFileIsKept() throws IOException {
+        final List<Path> files = createFiles(2);
+        hashAll(files, PjwHasher.NAME, 2);
+        HashCache.load(cacheFile(), PjwHasher.NAME).save(cacheFile());
+        hashAll(files, PjwHasher.NAME, 0);
+    }
+
+    @Test
+    void otherAlgorithmDiscardsCache() throws IOException {
+        final List<Path> files = createFiles(4);
+        hashAll(files, PjwHasher.NAME, 4);
+        assertEquals(uncached(files, Crc32cHasher.NAME), hashAll(files, Crc32cHasher.NAME, 4));
+        assertEquals(uncached(files, PjwHasher.NAME), hashAll(files, PjwHasher.NAME, 4));
+    }
+
+    @Test
+    void readerOfOtherAlgorithmIsRejected() {
+        final HashCache cache = HashCache.load(cacheFile(), PjwHasher.NAME);
+        assertThrows(IllegalArgumentException.class, () -> {
+            final Path file = createFiles(1).get(0);
+            cache.hash(file, Files.readAttributes(file, BasicFileAttributes.class), new CountingReader(Word64Hasher.NAME));
+        });
+    }
+
+    private Path cacheFile() {
+        return dir.resolve("hashes.cache");
+    }
+
+    private List<Path> createFiles(int count) throws IOException {
+        final List<Path> files = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            files.add(Files.writeString(dir.resolve("file" + i), "contents of file " + i));
+        }
+        return files;
+    }
+
+    /** Hashes the files through a cache loaded from and saved to {@link #cacheFile()}, expecting that many reads. */
+    private List<Long> hashAll(List<Path> files, String algorithm, int expectedReads) throws IOException {
+        final HashCache cache = HashCache.load(cacheFile(), algorithm);
+        final CountingReader reader = new CountingReader(algorithm);
+        final List<Long> hashes = new ArrayList<>();
+        for (Path file : files) {
+            hashes.add(cache.hash(file, Files.readAttributes(file, BasicFileAttributes.class), reader));
+        }
+        cache.save(cacheFile());
+        assertEquals(expectedReads, reader.reads, "Files read with " + algorithm);
+        return hashes;
+    }
+
+    private static List<Long> uncached(List<Path> files, String algorithm) {
+        final FileHashReader reader = new CountingReader(algorithm);
+        final List<Long> hashes = new ArrayList<>();
+        for (Path file : files) {
+            hashes.add(reader.hash(file));
+        }
+        return hashes;
+    }
+
+    private static class CountingReader extends FileHashReader {
+        private int reads = 0;
+
+        private CountingReader(String algorithm) {
+            super(DEFAULT_MAP_THRESHOLD, FileHasher.forName(algorithm).get());
+        }
+
+        @Override
+        public long read(Path file) throws IOException {
+            reads++;
+            return super.read(file);
+        }
+    }
+
+    private static class FailingReader extends CountingReader {
+        private FailingReader(String algorithm) {
+            super(algorithm);
+        }
+
+        @Override
+        public long read(Path file) throws IOException {
+            super.read(file);
+            throw new IOException("Failed to read " + file);
+        }
+    }
+}
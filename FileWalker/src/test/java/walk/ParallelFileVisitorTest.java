@@ -0,0 +1,78 @@
+package walk;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelFileVisitorTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void failingWriterDuringWalk() throws IOException {
+        createFiles(3000);
+        assertWalkFailsOnce(FileHashReader::new, "No space left");
+    }
+
+    @Test
+    void failingWriterAfterWalk() throws IOException {
+        createFiles(1);
+        assertWalkFailsOnce(FileHashReader::new, "No space left");
+    }
+
+    @Test
+    void failingTask() throws IOException {
+        createFiles(100);
+        assertWalkFailsOnce(() -> new FileHashReader() {
+            @Override
+            public long hash(Path file) {
+                throw new IllegalStateException("Broken hasher");
+            }
+        }, "Broken hasher");
+    }
+
+    private void createFiles(int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            Files.writeString(dir.resolve("file" + i), Integer.toString(i));
+        }
+    }
+
+    /** Walks {@link #dir} into a writer that always fails and expects one exception, thrown once, and no hang. */
+    private void assertWalkFailsOnce(Supplier<FileHashReader> hashReaders, String message) {
+        // The writer is left open: closing it would flush its buffer and fail again, outside of the visitor.
+        BufferedWriter writer = new BufferedWriter(new FailingWriter(), 1);
+        IOException exception = assertTimeoutPreemptively(TIMEOUT, () -> assertThrows(IOException.class, () -> {
+            try (ParallelFileVisitor visitor = new ParallelFileVisitor(writer, 2, hashReaders)) {
+                Files.walkFileTree(dir, visitor);
+            }
+        }));
+        assertTrue(String.valueOf(exception).contains(message), () -> "Unexpected exception " + exception);
+        assertEquals(0, exception.getSuppressed().length, "Failure must be thrown once");
+    }
+
+    private static class FailingWriter extends Writer {
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+            throw new IOException("No space left on device");
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
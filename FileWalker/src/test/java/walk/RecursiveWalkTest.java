@@ -0,0 +1,107 @@
+package walk;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecursiveWalkTest {
+    private static final int[] SIZES = {0, 1, 7, 8, 1023, 1024, 1025, 64 * 1024 + 3, 300_000};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void pjwReadPath() throws IOException {
+        createTree();
+        assertEquals(oldPjwLines(), new HashSet<>(walk("--hash", "pjw")));
+    }
+
+    @Test
+    void defaultOutputIsPjw() throws IOException {
+        createTree();
+        assertEquals(oldPjwLines(), new HashSet<>(walk()));
+        assertEquals(oldPjwLines(), new HashSet<>(walk("--threads", "2")));
+    }
+
+    @Test
+    void pjwMappedPath() throws IOException {
+        createTree();
+        assertEquals(oldPjwLines(), new HashSet<>(walk("--hash", "pjw", "--map-threshold", "0")));
+    }
+
+    @Test
+    void parallelEqualsSequential() throws IOException {
+        createTree();
+        for (String algorithm : List.of(PjwHasher.NAME, Word64Hasher.NAME, Crc32cHasher.NAME)) {
+            final List<String> sequential = walk("--hash", algorithm);
+            assertEquals(sequential, walk("--hash", algorithm, "--threads", "1"), algorithm);
+            assertEquals(sequential, walk("--hash", algorithm, "--threads", "4"), algorithm);
+            assertEquals(sequential, walk("--hash", algorithm, "--threads", "4", "--map-threshold", "0"), algorithm);
+        }
+    }
+
+    /** Files of sizes around the buffer boundaries, with every byte value, in two levels of directories. */
+    private void createTree() throws IOException {
+        final Random random = new Random(2023);
+        for (int i = 0; i < SIZES.length; i++) {
+            final Path parent = dir.resolve("tree").resolve("sub" + i % 3);
+            Files.createDirectories(parent);
+            final byte[] bytes = new byte[SIZES[i]];
+            random.nextBytes(bytes);
+            Files.write(parent.resolve("file" + i), bytes);
+        }
+    }
+
+    /** Runs the walk over the tree with the given options and returns the output lines. */
+    private List<String> walk(String... options) throws IOException {
+        final Path input = dir.resolve("input.txt");
+        final Path output = dir.resolve("output.txt");
+        Files.writeString(input, dir.resolve("tree") + System.lineSeparator());
+        Files.deleteIfExists(output);
+        final List<String> args = new ArrayList<>(Arrays.asList(options));
+        args.add(input.toString());
+        args.add(output.toString());
+        RecursiveWalk.main(args.toArray(String[]::new));
+        return Files.readAllLines(output);
+    }
+
+    /** Expected lines computed the way the walker did before the channel read path: a 1 KB byte[] loop. */
+    private Set<String> oldPjwLines() throws IOException {
+        try (var files = Files.walk(dir.resolve("tree"))) {
+            final List<Path> regular = files.filter(Files::isRegularFile).collect(Collectors.toList());
+            final Set<String> lines = new HashSet<>();
+            for (Path file : regular) {
+                lines.add(String.format("%016x %s", oldPjw(file), file));
+            }
+            return lines;
+        }
+    }
+
+    private static long oldPjw(Path file) throws IOException {
+        final byte[] buffer = new byte[1024];
+        long hash = 0;
+        try (InputStream in = new FileInputStream(file.toString())) {
+            int count;
+            while ((count = in.read(buffer)) >= 0) {
+                for (int i = 0; i < count; i++) {
+                    hash = (hash << 8) + (buffer[i] & 0xFF);
+                    final long high = hash & 0xFF00_0000_0000_0000L;
+                    if (high != 0) {
+                        hash ^= high >> 48;
+                        hash &= ~high;
+                    }
+                }
+            }
+        }
+        return hash;
+    }
+}
@@ -1,4 +1,12 @@
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -6,27 +14,200 @@ import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 public class IterativeParallelism {
+    /** Least estimated work per part, in nanoseconds, that pays for handing the part to another thread. */
+    private static final long MIN_PART_COST = 100_000;
+
+    private final ParallelMapper mapper;
+    private final ExecutorService executor;
+    private final ForkJoinPool forkJoinPool;
+    private final int splitFactor;
+    private final long elementCost;
+
+    /** Runs every call on its own newly created threads. */
+    public IterativeParallelism() {
+        this(null);
+    }
+
+    /** Runs every call on workers of {@code mapper}, which stays owned by the caller. */
+    public IterativeParallelism(ParallelMapper mapper) {
+        this(mapper, null, null, 1, 0);
+    }
+
+    /**
+     * Runs every call as tasks of {@code executor}, which stays owned by the caller.
+     * The list is cut into {@code threads * splitFactor} parts, so that slow or blocking
+     * operations can keep more tasks in flight than the requested number of threads.
+     */
+    public IterativeParallelism(ExecutorService executor, int splitFactor) {
+        this(null, Objects.requireNonNull(executor), null, splitFactor, 0);
+    }
+
+    private IterativeParallelism(ParallelMapper mapper, ExecutorService executor, ForkJoinPool forkJoinPool,
+                                 int splitFactor, long elementCost) {
+        if (splitFactor <= 0) {
+            throw new IllegalArgumentException("Expected positive split factor");
+        }
+        if (elementCost < 0) {
+            throw new IllegalArgumentException("Expected non-negative element cost");
+        }
+        this.mapper = mapper;
+        this.executor = executor;
+        this.forkJoinPool = forkJoinPool;
+        this.splitFactor = splitFactor;
+        this.elementCost = elementCost;
+    }
+
+    /**
+     * Returns instance running on the same threads that picks the number of parts adaptively:
+     * no more than requested, and few enough that every part gets at least about 100 microseconds
+     * of work given {@code elementCost} nanoseconds per element. Inputs that fit in one part
+     * run on the calling thread.
+     */
+    public IterativeParallelism withCostHint(long elementCost) {
+        return new IterativeParallelism(mapper, executor, forkJoinPool, splitFactor, elementCost);
+    }
+
+    /**
+     * Runs every call on {@code pool}, which stays owned by the caller, by recursively halving index ranges
+     * down to {@code threads * splitFactor} leaves. Idle workers steal pending halves from busy ones,
+     * so parts with expensive elements do not hold up the rest.
+     */
+    public static IterativeParallelism workStealing(ForkJoinPool pool, int splitFactor) {
+        return new IterativeParallelism(null, null, Objects.requireNonNull(pool), splitFactor, 0);
+    }
+
     public <T> T minimum(int threads, List<T> list, Comparator<? super T> comparator) {
-        return completeJob(threads, list, comparator, e -> e.min(comparator).orElse(null));
+        return completeJob(threads, list, e -> e.min(comparator).orElse(null));
     }
+
     public <T> T maximum(int threads, List<T> list, Comparator<? super T> comparator) {
-        return completeJob(threads, list, comparator, e -> e.max(comparator).orElse(null));
+        return completeJob(threads, list, e -> e.max(comparator).orElse(null));
     }
-    private  <T> T completeJob(int threads, List<T> list, Comparator<? super T> comparator,
-                         Function<Stream<T>, T> operation) {
-        List<Stream<T>> parts = separate(threads, list);
-        return operation.apply(concurrentJob(parts, comparator, operation).stream());
+
+    /** Returns whether every element matches {@code predicate}. Stops all parts at the first mismatch. */
+    public <T> boolean all(int threads, List<? extends T> list, Predicate<? super T> predicate) {
+        return !any(threads, list, predicate.negate());
+    }
+
+    /** Returns whether any element matches {@code predicate}. Stops all parts at the first match. */
+    public <T> boolean any(int threads, List<? extends T> list, Predicate<? super T> predicate) {
+        final AtomicBoolean found = new AtomicBoolean(false);
+        return completeJob(threads, list,
+                part -> {
+                    boolean result = part.takeWhile(e -> !found.get()).anyMatch(predicate);
+                    if (result) {
+                        found.set(true);
+                    }
+                    return result;
+                },
+                results -> results.anyMatch(Boolean::booleanValue));
+    }
+
+    /** Returns number of elements matching {@code predicate}. */
+    public <T> int count(int threads, List<? extends T> list, Predicate<? super T> predicate) {
+        return completeJob(threads, list,
+                part -> (int) part.filter(predicate).count(),
+                results -> results.mapToInt(Integer::intValue).sum());
+    }
+
+    /** Returns elements matching {@code predicate} in their original order. */
+    public <T> List<T> filter(int threads, List<? extends T> list, Predicate<? super T> predicate) {
+        return completeJob(threads, list,
+                part -> part.filter(predicate).collect(Collectors.<T>toList()),
+                IterativeParallelism::concat);
+    }
+
+    /** Returns results of {@code f} applied to every element, in the original order. */
+    public <T, U> List<U> map(int threads, List<? extends T> list, Function<? super T, ? extends U> f) {
+        return completeJob(threads, list,
+                part -> part.map(f).collect(Collectors.<U>toList()),
+                IterativeParallelism::concat);
+    }
+
+    /** Returns concatenation of {@link Object#toString() string representations} of the elements. */
+    public String join(int threads, List<?> list) {
+        return completeJob(threads, list,
+                part -> part.map(String::valueOf).collect(Collectors.joining()),
+                results -> results.collect(Collectors.joining()));
+    }
+
+    /**
+     * Folds the elements with associative {@code operation}, starting every part
+     * and the final merge from {@code identity}.
+     */
+    public <T> T reduce(int threads, List<T> list, T identity, BinaryOperator<T> operation) {
+        return completeJob(threads, list,
+                part -> part.reduce(identity, operation),
+                results -> results.reduce(identity, operation));
     }
 
+    private <T> T completeJob(int threads, List<T> list, Function<Stream<T>, T> operation) {
+        return completeJob(threads, list, operation, operation);
+    }
 
-    private <T> List<T> concurrentJob(List<Stream<T>> parts, Comparator<? super T> comparator,
-                                      Function<Stream<T>, T> operation) {
-        List<T> results = new ArrayList<>(Collections.nCopies(parts.size(), null));
+    /**
+     * Splits the list into parts, applies {@code operation} to every part concurrently
+     * and merges part results in the order of parts.
+     */
+    private <E, R> R completeJob(int threads, List<E> list, Function<Stream<E>, R> operation,
+                                 Function<Stream<R>, R> merge) {
+        int partCount = partCount(threads, list.size());
+        if (partCount > 1 && forkJoinPool != null) {
+            int leafSize = (list.size() + partCount - 1) / partCount;
+            AtomicReference<RuntimeException> failure = new AtomicReference<>();
+            try {
+                return forkJoinPool.invoke(new RangeTask<>(list, 0, list.size(), leafSize, operation, merge, failure));
+            } catch (RuntimeException e) {
+                // ForkJoinTask wraps failures of other threads into new exceptions, rethrow the original one
+                throw failure.get() != null ? failure.get() : e;
+            }
+        }
+        List<Stream<E>> parts = separate(partCount, list);
+        if (parts.size() <= 1) {
+            return merge.apply(parts.stream().map(operation));
+        }
+        return merge.apply(concurrentJob(parts, operation).stream());
+    }
+
+    private int partCount(int threads, int size) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Expected positive number of threads");
+        }
+        long partCount = executor == null && forkJoinPool == null ? threads : (long) threads * splitFactor;
+        if (elementCost > 0) {
+            long totalCost = elementCost > Long.MAX_VALUE / Math.max(size, 1) ? Long.MAX_VALUE : size * elementCost;
+            partCount = Math.min(partCount, Math.max(1, totalCost / MIN_PART_COST));
+        }
+        return (int) Math.min(partCount, size);
+    }
+
+    private static <T> List<T> concat(Stream<List<T>> parts) {
+        return parts.flatMap(List::stream).collect(Collectors.toList());
+    }
+
+    private <E, R> List<R> concurrentJob(List<Stream<E>> parts, Function<Stream<E>, R> operation) {
+        if (mapper != null) {
+            try {
+                return mapper.map(operation, parts);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+        if (executor != null) {
+            return submitJob(parts, operation);
+        }
+        List<R> results = new ArrayList<>(Collections.nCopies(parts.size(), null));
+        AtomicReference<Throwable> failure = new AtomicReference<>();
         List<Thread> partResults = IntStream.
                 range(0, parts.size()).
                 mapToObj(i -> {
                     Thread thread = new Thread(() -> {
-                        results.set(i, operation.apply(parts.get(i)));
+                        try {
+                            results.set(i, operation.apply(parts.get(i)));
+                        } catch (Throwable e) {
+                            failure.compareAndSet(null, e);
+                        }
                     });
                     thread.start();
                     return thread;
@@ -35,20 +216,98 @@ public class IterativeParallelism {
             try {
                 thread.join();
             } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
                 throw new RuntimeException(e);
             }
         }
+        Throwable cause = failure.get();
+        if (cause != null) {
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+        return results;
+    }
+
+    private <E, R> List<R> submitJob(List<Stream<E>> parts, Function<Stream<E>, R> operation) {
+        List<Future<R>> futures = parts.stream()
+                .map(part -> executor.submit(() -> operation.apply(part)))
+                .collect(Collectors.toList());
+        List<R> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
         return results;
     }
 
-    private <T> List<Stream<T>> separate(int threads, List<T> list) {
-        List<Stream<T>> streams = new ArrayList<>();
-        int partSize = list.size() / threads;
+    /** Cuts the list into {@code partCount} contiguous parts whose sizes differ by at most one. */
+    private <T> List<Stream<T>> separate(int partCount, List<T> list) {
+        List<Stream<T>> streams = new ArrayList<>(partCount);
+        int partSize = partCount == 0 ? 0 : list.size() / partCount;
+        int remainder = partCount == 0 ? 0 : list.size() % partCount;
         int last = 0;
-        for(int i = 0;i < threads;i++) {
-            streams.add(list.subList(last, Math.min(last + partSize, list.size())).stream());
-            last += partSize;
+        for(int i = 0;i < partCount;i++) {
+            int next = last + partSize + (i < remainder ? 1 : 0);
+            streams.add(list.subList(last, next).stream());
+            last = next;
         }
         return streams;
     }
-}
\ No newline at end of file
+
+    /**
+     * Applies operation to a range or splits it in halves, merging results of the halves in order.
+     * The first exception thrown by an operation is stored into {@code failure}.
+     */
+    private static class RangeTask<E, R> extends RecursiveTask<R> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<E> list;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+        private final Function<Stream<E>, R> operation;
+        private final Function<Stream<R>, R> merge;
+        private final AtomicReference<RuntimeException> failure;
+
+        private RangeTask(List<E> list, int from, int to, int leafSize, Function<Stream<E>, R> operation,
+                          Function<Stream<R>, R> merge, AtomicReference<RuntimeException> failure) {
+            this.list = list;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+            this.operation = operation;
+            this.merge = merge;
+            this.failure = failure;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from <= leafSize) {
+                try {
+                    return operation.apply(list.subList(from, to).stream());
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                    throw e;
+                }
+            }
+            int middle = (from + to) >>> 1;
+            RangeTask<E, R> left = new RangeTask<>(list, from, middle, leafSize, operation, merge, failure);
+            left.fork();
+            R right = new RangeTask<>(list, middle, to, leafSize, operation, merge, failure).compute();
+            return merge.apply(Stream.of(left.join(), right));
+        }
+    }
+}
@@ -0,0 +1,164 @@
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Fixed set of worker threads sharing one task queue.
+ * Can be reused by any number of calls and must be {@link #close() closed} when no longer needed.
+ */
+public class ParallelMapper implements AutoCloseable {
+    private final List<Thread> workers;
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private final Set<Results<?>> running = new HashSet<>();
+    private boolean closed = false;
+
+    public ParallelMapper(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Expected positive number of threads");
+        }
+        workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(this::work);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /** Applies {@code f} to every argument in parallel and returns results in the order of arguments. */
+    public <T, R> List<R> map(Function<? super T, ? extends R> f, List<? extends T> args) throws InterruptedException {
+        final Results<R> results = new Results<>(args.size());
+        synchronized (tasks) {
+            if (closed) {
+                throw new IllegalStateException("Mapper is closed");
+            }
+            running.add(results);
+            for (int i = 0; i < args.size(); i++) {
+                final int index = i;
+                final T arg = args.get(i);
+                tasks.add(() -> {
+                    try {
+                        results.set(index, f.apply(arg));
+                    } catch (Throwable e) {
+                        results.fail(e);
+                    } finally {
+                        results.finish();
+                    }
+                });
+            }
+            tasks.notifyAll();
+        }
+        try {
+            return results.await();
+        } finally {
+            synchronized (tasks) {
+                running.remove(results);
+            }
+        }
+    }
+
+    /** Stops all workers. Calls to {@link #map} that are still waiting fail with {@link IllegalStateException}. */
+    @Override
+    public void close() {
+        synchronized (tasks) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            tasks.clear();
+            running.forEach(Results::cancel);
+            tasks.notifyAll();
+        }
+        // Interrupts running tasks; workers between tasks see the closed flag even if a task cleared the interrupt.
+        workers.forEach(Thread::interrupt);
+        boolean interrupted = false;
+        for (Thread worker : workers) {
+            while (true) {
+                try {
+                    worker.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void work() {
+        try {
+            while (true) {
+                final Runnable task;
+                synchronized (tasks) {
+                    while (tasks.isEmpty() && !closed) {
+                        tasks.wait();
+                    }
+                    if (closed) {
+                        return;
+                    }
+                    task = tasks.poll();
+                }
+                task.run();
+            }
+        } catch (InterruptedException e) {
+            // mapper is closed
+        }
+    }
+
+    private static class Results<R> {
+        private final List<R> values;
+        private int remaining;
+        private Throwable error;
+        private boolean cancelled = false;
+
+        private Results(int size) {
+            values = new ArrayList<>(Collections.nCopies(size, null));
+            remaining = size;
+        }
+
+        private synchronized void set(int index, R value) {
+            values.set(index, value);
+        }
+
+        private synchronized void fail(Throwable e) {
+            if (error == null) {
+                error = e;
+            } else if (e != error) {
+                error.addSuppressed(e);
+            }
+        }
+
+        private synchronized void cancel() {
+            cancelled = true;
+            notifyAll();
+        }
+
+        private synchronized void finish() {
+            if (--remaining == 0) {
+                notifyAll();
+            }
+        }
+
+        private synchronized List<R> await() throws InterruptedException {
+            while (remaining > 0 && !cancelled) {
+                wait();
+            }
+            if (cancelled) {
+                throw new IllegalStateException("Mapper is closed");
+            }
+            if (error instanceof Error) {
+                throw (Error) error;
+            }
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            }
+            if (error != null) {
+                // a checked exception thrown sneakily by the function
+                throw new UndeclaredThrowableException(error);
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BinaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IterativeParallelismTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final int[] SIZES = {0, 1, 5, 100, 1000};
+    private static final int[] THREADS = {1, 2, 3, 7, 20};
+
+    private final ParallelMapper mapper = new ParallelMapper(3);
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+    private final ForkJoinPool pool = new ForkJoinPool(3);
+    private final Random random = new Random(7919);
+
+    @AfterEach
+    void close() {
+        mapper.close();
+        executor.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    /** Every way of running calls, each named for failure messages. */
+    private Map<String, IterativeParallelism> modes() {
+        Map<String, IterativeParallelism> modes = new LinkedHashMap<>();
+        modes.put("threads", new IterativeParallelism());
+        modes.put("mapper", new IterativeParallelism(mapper));
+        modes.put("executor", new IterativeParallelism(executor, 1));
+        modes.put("executor x3", new IterativeParallelism(executor, 3));
+        modes.put("work stealing", IterativeParallelism.workStealing(pool, 2));
+        modes.put("threads, cheap", new IterativeParallelism().withCostHint(1));
+        modes.put("executor, costly", new IterativeParallelism(executor, 2).withCostHint(1_000_000));
+        modes.put("work stealing, cheap", IterativeParallelism.workStealing(pool, 4).withCostHint(50));
+        return modes;
+    }
+
+    @Test
+    void matchesSequentialStreams() {
+        for (Map.Entry<String, IterativeParallelism> mode : modes().entrySet()) {
+            IterativeParallelism parallelism = mode.getValue();
+            for (int size : SIZES) {
+                List<Integer> list = random.ints(size, -1000, 1000).boxed().collect(Collectors.toList());
+                List<String> strings = list.stream().map(i -> Integer.toString(i, 36)).collect(Collectors.toList());
+                for (int threads : THREADS) {
+                    String context = mode.getKey() + ", " + threads + " threads, " + size + " elements";
+                    assertTimeoutPreemptively(TIMEOUT, () -> {
+                        assertEquals(list.stream().min(Comparator.naturalOrder()).orElse(null),
+                                parallelism.minimum(threads, list, Comparator.naturalOrder()), context);
+                        assertEquals(list.stream().max(Comparator.comparingInt(Math::abs)).orElse(null),
+                                parallelism.maximum(threads, list, Comparator.comparingInt(Math::abs)), context);
+                        for (int bound : new int[]{-1001, -900, 0, 990, 1000}) {
+                            assertEquals(list.stream().allMatch(i -> i > bound),
+                                    parallelism.all(threads, list, i -> i > bound), context);
+                            assertEquals(list.stream().anyMatch(i -> i < bound),
+                                    parallelism.any(threads, list, i -> i < bound), context);
+                            assertEquals((int) list.stream().filter(i -> i < bound).count(),
+                                    parallelism.count(threads, list, i -> i < bound), context);
+                        }
+                        assertEquals(list.stream().filter(i -> i % 3 == 0).collect(Collectors.toList()),
+                                parallelism.filter(threads, list, i -> i % 3 == 0), context);
+                        assertEquals(list.stream().map(i -> i * 2 + "!").collect(Collectors.toList()),
+                                parallelism.map(threads, list, i -> i * 2 + "!"), context);
+                        assertEquals(list.stream().map(String::valueOf).collect(Collectors.joining()),
+                                parallelism.join(threads, list), context);
+                        assertEquals(list.stream().reduce(0, Integer::sum),
+                                parallelism.reduce(threads, list, 0, Integer::sum), context);
+                        // associative, not commutative: parts must be merged in order
+                        assertEquals(strings.stream().reduce("", String::concat),
+                                parallelism.reduce(threads, strings, "", String::concat), context);
+                    });
+                }
+            }
+        }
+    }
+
+    @Test
+    void anyStopsAllParts() throws InterruptedException {
+        List<Integer> list = IntStream.range(0, 10_000).boxed().collect(Collectors.toList());
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        try (ParallelMapper sequential = new ParallelMapper(1)) {
+            // one worker runs the parts one after another, so parts after the match must not test anything
+            for (IterativeParallelism parallelism : List.of(
+                    new IterativeParallelism(single, 4), new IterativeParallelism(sequential))) {
+                AtomicInteger tested = new AtomicInteger();
+                assertTrue(parallelism.any(4, list, i -> {
+                    tested.incrementAndGet();
+                    return i == 0;
+                }));
+                assertEquals(1, tested.get());
+
+                tested.set(0);
+                assertFalse(parallelism.all(4, list, i -> {
+                    tested.incrementAndGet();
+                    return i != 1;
+                }));
+                assertEquals(2, tested.get());
+
+                tested.set(0);
+                assertFalse(parallelism.any(4, list, i -> {
+                    tested.incrementAndGet();
+                    return false;
+                }));
+                assertEquals(list.size(), tested.get());
+            }
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test
+    void balancedParts() {
+        IterativeParallelism threads = new IterativeParallelism();
+        IterativeParallelism mapped = new IterativeParallelism(mapper);
+        for (int size : new int[]{1, 7, 10, 64, 101}) {
+            List<String> list = Collections.nCopies(size, "a");
+            for (int count : THREADS) {
+                String expected = parts(size, Math.min(count, size));
+                assertEquals(expected, reduceParts(threads, count, list), size + " in " + count);
+                assertEquals(expected, reduceParts(mapped, count, list), size + " in " + count);
+            }
+        }
+        assertEquals("||aaa|aaa|aa|aa", reduceParts(threads, 4, Collections.nCopies(10, "a")));
+        assertEquals("||aaaaa", reduceParts(threads, 1, Collections.nCopies(5, "a")));
+        assertEquals("|", reduceParts(threads, 3, List.of()));
+    }
+
+    @Test
+    void splitFactor() {
+        List<String> list = Collections.nCopies(30, "a");
+        assertEquals(parts(30, 6), reduceParts(new IterativeParallelism(executor, 3), 2, list));
+        assertEquals(parts(30, 30), reduceParts(new IterativeParallelism(executor, 100), 2, list));
+        assertEquals(parts(30, 2), reduceParts(new IterativeParallelism(mapper), 2, list));
+
+        assertThrows(IllegalArgumentException.class, () -> new IterativeParallelism(executor, 0));
+        assertThrows(IllegalArgumentException.class, () -> IterativeParallelism.workStealing(pool, -1));
+        assertThrows(NullPointerException.class, () -> new IterativeParallelism((ExecutorService) null, 1));
+        assertThrows(NullPointerException.class, () -> IterativeParallelism.workStealing(null, 1));
+        for (IterativeParallelism parallelism : modes().values()) {
+            assertThrows(IllegalArgumentException.class, () -> parallelism.join(0, list));
+        }
+    }
+
+    @Test
+    void costHint() {
+        List<String> list = Collections.nCopies(1000, "a");
+        IterativeParallelism parallelism = new IterativeParallelism(executor, 2);
+        // 1000 elements of 1 us make 1 ms of work, enough for ten parts of 100 us
+        assertEquals(parts(1000, 10), reduceParts(parallelism.withCostHint(1000), 20, list));
+        assertEquals(parts(1000, 6), reduceParts(parallelism.withCostHint(1000), 3, list));
+        assertEquals(parts(1000, 6), reduceParts(parallelism.withCostHint(Long.MAX_VALUE), 3, list));
+        assertEquals(parts(1000, 6), reduceParts(parallelism.withCostHint(0), 3, list));
+
+        // too little work for a second part runs on the calling thread
+        Thread caller = Thread.currentThread();
+        assertEquals(Collections.nCopies(1000, true),
+                parallelism.withCostHint(1).map(8, list, e -> Thread.currentThread() == caller));
+        assertEquals(Collections.nCopies(1000, true), IterativeParallelism.workStealing(pool, 2).withCostHint(1)
+                .map(8, list, e -> Thread.currentThread() == caller));
+
+        assertThrows(IllegalArgumentException.class, () -> parallelism.withCostHint(-1));
+    }
+
+    @Test
+    void workStealingRunsOnPool() {
+        List<Integer> list = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        IterativeParallelism parallelism = IterativeParallelism.workStealing(pool, 8);
+        List<Boolean> onPool = parallelism.map(3, list, e -> Thread.currentThread() instanceof ForkJoinWorkerThread
+                && ((ForkJoinWorkerThread) Thread.currentThread()).getPool() == pool);
+        assertEquals(Collections.nCopies(list.size(), true), onPool);
+
+        // halving down to 24 leaves of at most 42 elements, each reduced from the identity
+        String reduced = reduceParts(parallelism, 3, Collections.nCopies(1000, "a"));
+        assertEquals(1000, reduced.chars().filter(c -> c == 'a').count());
+        for (String leaf : reduced.split("\\|")) {
+            assertTrue(leaf.length() <= 42, leaf);
+        }
+    }
+
+    @Test
+    void workerExceptionPropagates() {
+        List<Integer> list = IntStream.range(0, 1000).boxed().collect(Collectors.toList());
+        for (Map.Entry<String, IterativeParallelism> mode : modes().entrySet()) {
+            IterativeParallelism parallelism = mode.getValue();
+            for (int failing : new int[]{0, 499, 999}) {
+                IllegalStateException failure = new IllegalStateException("Failed at " + failing);
+                IllegalStateException thrown = assertTimeoutPreemptively(TIMEOUT, () -> assertThrows(
+                        IllegalStateException.class,
+                        () -> parallelism.map(4, list, i -> {
+                            if (i == failing) {
+                                throw failure;
+                            }
+                            return i;
+                        })));
+                assertSame(failure, thrown, mode.getKey());
+            }
+            // the threads survived the failure
+            assertEquals(list, assertTimeoutPreemptively(TIMEOUT, () -> parallelism.map(4, list, i -> i)),
+                    mode.getKey());
+        }
+    }
+
+    /**
+     * Reduces {@code list} from the separator {@code "|"}, which is not an identity of concatenation,
+     * so the result shows how the list was split: one separator per part, after one for the merge.
+     */
+    private static String reduceParts(IterativeParallelism parallelism, int threads, List<String> list) {
+        BinaryOperator<String> concat = String::concat;
+        return parallelism.reduce(threads, list, "|", concat);
+    }
+
+    /** Expected {@link #reduceParts} of {@code size} copies of {@code "a"} split into balanced parts. */
+    private static String parts(int size, int count) {
+        StringBuilder result = new StringBuilder("|");
+        for (int i = 0; i < count; i++) {
+            result.append('|').append("a".repeat(size / count + (i < size % count ? 1 : 0)));
+        }
+        return result.toString();
+    }
+}
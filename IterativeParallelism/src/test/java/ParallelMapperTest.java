@@ -0,0 +1,47 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelMapperTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final ParallelMapper mapper = new ParallelMapper(2);
+
+    @AfterEach
+    void close() {
+        mapper.close();
+    }
+
+    @Test
+    void sharedExceptionInstance() {
+        IllegalStateException shared = new IllegalStateException("Shared failure");
+        List<Integer> args = List.of(1, 2, 3, 4, 5, 6, 7, 8);
+        for (int attempt = 0; attempt < 2; attempt++) {
+            IllegalStateException thrown = assertTimeoutPreemptively(TIMEOUT, () -> assertThrows(
+                    IllegalStateException.class,
+                    () -> mapper.map(x -> { throw shared; }, args)));
+            assertSame(shared, thrown);
+        }
+        // workers survived the failures
+        assertEquals(List.of(2, 3), assertTimeoutPreemptively(TIMEOUT, () -> mapper.map(x -> x + 1, List.of(1, 2))));
+    }
+
+    @Test
+    void sneakyCheckedException() {
+        Exception checked = new Exception("Checked failure");
+        UndeclaredThrowableException thrown = assertTimeoutPreemptively(TIMEOUT, () -> assertThrows(
+                UndeclaredThrowableException.class,
+                () -> mapper.map(x -> ParallelMapperTest.<RuntimeException>sneakyThrow(checked), List.of(1, 2))));
+        assertSame(checked, thrown.getCause());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends Throwable> Object sneakyThrow(Throwable e) throws E {
+        throw (E) e;
+    }
+}
@@ -0,0 +1,290 @@
+package student;
+
+import java.util.*;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * {@link GroupQuery} remembering sorted orderings and group partitions of recently queried collections.
+ * Entries are keyed by collection identity and checked against a fingerprint of the elements
+ * computed on every call, so a collection changed since it was cached is usually sorted again.
+ * The least recently used collections are evicted once there are more than the capacity.
+ *
+ * <p>The fingerprint has two limits:
+ * <ul>
+ *     <li>For ordinary collections it hashes the {@link System#identityHashCode identity hash codes}
+ *     of all elements in order. This is an {@code O(n)} pass on every call, hits included. It is much
+ *     cheaper than the sorts it saves, but the result is only a hash. If a mutation happens to keep it
+ *     equal, for example because identity hash codes collide, stale results are returned. Call
+ *     {@link #invalidate} after changing a cached collection whenever that matters. Collections only hit
+ *     the cache if they return the same student instances each time they are iterated.</li>
+ *     <li>Collections implementing {@link ImmutableRoster}, {@link StudentTable} and lists opened by
+ *     {@link RosterFile}, create new students on every access, so they are fingerprinted by their size
+ *     alone, in constant time. This is safe only because the marker is package-private and implemented
+ *     solely by final classes that never change; a changing collection with that marker would get stale results.</li>
+ * </ul>
+ *
+ * <p>Searches by name and group are answered from the cached ordering by name and partition by group.
+ * Results are equal to ones of the delegate and may be modified by the caller.
+ */
+public class CachingStudentDB implements GroupQuery {
+    public static final int DEFAULT_CAPACITY = 16;
+
+    private final StudentDB delegate;
+    private final Map<Key, CacheEntry> entries;
+    private long hits = 0;
+    private long misses = 0;
+
+    public CachingStudentDB() {
+        this(new StudentDB(), DEFAULT_CAPACITY);
+    }
+
+    /** Caches results of {@code delegate} for at most {@code capacity} collections. */
+    public CachingStudentDB(StudentDB delegate, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Expected positive capacity");
+        }
+        this.delegate = Objects.requireNonNull(delegate);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CacheEntry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /** Number of queries answered from the cache. */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /** Number of queries that had to compute their ordering or partition. */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /** Forgets everything cached for {@code students}. */
+    public synchronized void invalidate(Collection<Student> students) {
+        entries.remove(new Key(students));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public List<Student> sortStudentsById(Collection<Student> students) {
+        return new ArrayList<>(byId(students));
+    }
+
+    @Override
+    public List<Student> sortStudentsByName(Collection<Student> students) {
+        return new ArrayList<>(byName(students));
+    }
+
+    @Override
+    public List<Group> getGroupsByName(Collection<Student> students) {
+        return new ArrayList<>(groupsByName(students));
+    }
+
+    @Override
+    public List<Group> getGroupsById(Collection<Student> students) {
+        return new ArrayList<>(cached(students, Kind.GROUPS_BY_ID, s -> List.copyOf(delegate.getGroupsById(s))));
+    }
+
+    // Filtering the stable ordering by name gives the same list as sorting the filtered students.
+
+    @Override
+    public List<Student> findStudentsByFirstName(Collection<Student> students, String name) {
+        return filter(byName(students), student -> student.getFirstName().equals(name));
+    }
+
+    @Override
+    public List<Student> findStudentsByLastName(Collection<Student> students, String name) {
+        return filter(byName(students), student -> student.getLastName().equals(name));
+    }
+
+    @Override
+    public List<Student> findStudentsByGroup(Collection<Student> students, GroupName group) {
+        return groupsByName(students).stream()
+                .filter(g -> g.getName() == group)
+                .findFirst()
+                .map(g -> new ArrayList<>(g.getStudents()))
+                .orElseGet(ArrayList::new);
+    }
+
+    // Pages are cut from the cached orderings instead of selecting them again.
+
+    @Override
+    public List<Student> sortStudentsById(Collection<Student> students, int offset, int limit) {
+        return new ArrayList<>(TopK.page(byId(students), offset, limit));
+    }
+
+    @Override
+    public List<Student> sortStudentsByName(Collection<Student> students, int offset, int limit) {
+        return new ArrayList<>(TopK.page(byName(students), offset, limit));
+    }
+
+    @Override
+    public List<Student> findStudentsByFirstName(Collection<Student> students, String name, int offset, int limit) {
+        return filterPage(byName(students), student -> student.getFirstName().equals(name), offset, limit);
+    }
+
+    @Override
+    public List<Student> findStudentsByLastName(Collection<Student> students, String name, int offset, int limit) {
+        return filterPage(byName(students), student -> student.getLastName().equals(name), offset, limit);
+    }
+
+    @Override
+    public List<Student> findStudentsByGroup(Collection<Student> students, GroupName group, int offset, int limit) {
+        TopK.checkPage(offset, limit);
+        return groupsByName(students).stream()
+                .filter(g -> g.getName() == group)
+                .findFirst()
+                .map(g -> new ArrayList<>(TopK.page(g.getStudents(), offset, limit)))
+                .orElseGet(ArrayList::new);
+    }
+
+    @Override
+    public Map<String, String> findStudentNamesByGroup(Collection<Student> students, GroupName group) {
+        return findStudentsByGroup(students, group).stream()
+                .collect(Collectors.toMap(
+                        Student::getLastName,
+                        Student::getFirstName,
+                        BinaryOperator.minBy(Comparator.naturalOrder())
+                ));
+    }
+
+    @Override
+    public GroupName getLargestGroup(Collection<Student> students) {
+        return delegate.getLargestGroup(students);
+    }
+
+    @Override
+    public GroupName getLargestGroupFirstName(Collection<Student> students) {
+        return delegate.getLargestGroupFirstName(students);
+    }
+
+    @Override
+    public List<String> getFirstNames(List<Student> students) {
+        return delegate.getFirstNames(students);
+    }
+
+    @Override
+    public List<String> getLastNames(List<Student> students) {
+        return delegate.getLastNames(students);
+    }
+
+    @Override
+    public List<GroupName> getGroups(List<Student> students) {
+        return delegate.getGroups(students);
+    }
+
+    @Override
+    public List<String> getFullNames(List<Student> students) {
+        return delegate.getFullNames(students);
+    }
+
+    @Override
+    public Set<String> getDistinctFirstNames(List<Student> students) {
+        return delegate.getDistinctFirstNames(students);
+    }
+
+    @Override
+    public String getMaxStudentFirstName(List<Student> students) {
+        return delegate.getMaxStudentFirstName(students);
+    }
+
+    private List<Student> byId(Collection<Student> students) {
+        return cached(students, Kind.BY_ID, s -> List.copyOf(delegate.sortStudentsById(s)));
+    }
+
+    private List<Student> byName(Collection<Student> students) {
+        return cached(students, Kind.BY_NAME, s -> List.copyOf(delegate.sortStudentsByName(s)));
+    }
+
+    private List<Group> groupsByName(Collection<Student> students) {
+        return cached(students, Kind.GROUPS_BY_NAME, s -> List.copyOf(delegate.getGroupsByName(s)));
+    }
+
+    private static List<Student> filter(List<Student> students, Predicate<Student> predicate) {
+        return students.stream().filter(predicate).collect(Collectors.toList());
+    }
+
+    /** Returns up to {@code limit} students matching {@code predicate} after skipping {@code offset} matches. */
+    private static List<Student> filterPage(List<Student> students, Predicate<Student> predicate,
+                                            int offset, int limit) {
+        TopK.checkPage(offset, limit);
+        return students.stream().filter(predicate).skip(offset).limit(limit).collect(Collectors.toList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T cached(Collection<Student> students, Kind kind, Function<Collection<Student>, T> compute) {
+        Key key = new Key(students);
+        long fingerprint = fingerprint(students);
+        synchronized (this) {
+            CacheEntry entry = entries.get(key);
+            if (entry != null && entry.fingerprint == fingerprint && entry.values.containsKey(kind)) {
+                hits++;
+                return (T) entry.values.get(kind);
+            }
+            misses++;
+        }
+        T value = compute.apply(students);
+        synchronized (this) {
+            CacheEntry entry = entries.get(key);
+            if (entry == null || entry.fingerprint != fingerprint) {
+                entry = new CacheEntry(fingerprint);
+                entries.put(key, entry);
+            }
+            entry.values.put(kind, value);
+        }
+        return value;
+    }
+
+    /** Order-sensitive hash of element identities; students are immutable, so identity captures contents. */
+    private static long fingerprint(Collection<Student> students) {
+        if (students instanceof ImmutableRoster) {
+            return students.size();
+        }
+        long hash = students.size();
+        for (Student student : students) {
+            hash = hash * 1_000_003 + System.identityHashCode(student);
+        }
+        return hash;
+    }
+
+    private enum Kind {
+        BY_ID, BY_NAME, GROUPS_BY_NAME, GROUPS_BY_ID
+    }
+
+    private static class CacheEntry {
+        private final long fingerprint;
+        private final Map<Kind, Object> values = new EnumMap<>(Kind.class);
+
+        private CacheEntry(long fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    /** Compares collections by identity. */
+    private static class Key {
+        private final Collection<Student> students;
+
+        private Key(Collection<Student> students) {
+            this.students = students;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && ((Key) obj).students == students;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(students);
+        }
+    }
+}
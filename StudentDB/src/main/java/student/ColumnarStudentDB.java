@@ -0,0 +1,422 @@
+package student;
+
+import java.util.*;
+import java.util.function.IntPredicate;
+
+/**
+ * {@link GroupQuery} working on the columns of a {@link StudentTable}: filters and groupings compare
+ * integer codes and ordinals, sorts order row numbers, and students are created only for returned rows.
+ * Other collections are handed to {@link StudentDB}. Results are equal to ones of {@link StudentDB}
+ * for the same rows.
+ */
+public class ColumnarStudentDB implements GroupQuery {
+    private static final int GROUP_COUNT = GroupName.values().length;
+
+    private final StudentDB fallback = new StudentDB();
+
+    @Override
+    public List<String> getFirstNames(List<Student> students) {
+        if (!(students instanceof StudentTable)) {
+            return fallback.getFirstNames(students);
+        }
+        StudentTable table = (StudentTable) students;
+        List<String> result = new ArrayList<>(table.size());
+        for (int code : table.firstNames) {
+            result.add(table.name(code));
+        }
+        return result;
+    }
+
+    @Override
+    public List<String> getLastNames(List<Student> students) {
+        if (!(students instanceof StudentTable)) {
+            return fallback.getLastNames(students);
+        }
+        StudentTable table = (StudentTable) students;
+        List<String> result = new ArrayList<>(table.size());
+        for (int code : table.lastNames) {
+            result.add(table.name(code));
+        }
+        return result;
+    }
+
+    @Override
+    public List<GroupName> getGroups(List<Student> students) {
+        if (!(students instanceof StudentTable)) {
+            return fallback.getGroups(students);
+        }
+        StudentTable table = (StudentTable) students;
+        List<GroupName> result = new ArrayList<>(table.size());
+        for (byte group : table.groups) {
+            result.add(StudentTable.group(group));
+        }
+        return result;
+    }
+
+    @Override
+    public List<String> getFullNames(List<Student> students) {
+        if (!(students instanceof StudentTable)) {
+            return fallback.getFullNames(students);
+        }
+        StudentTable table = (StudentTable) students;
+        List<String> result = new ArrayList<>(table.size());
+        for (int row = 0; row < table.size(); row++) {
+            result.add(table.name(table.firstNames[row]) + table.name(table.lastNames[row]));
+        }
+        return result;
+    }
+
+    @Override
+    public Set<String> getDistinctFirstNames(List<Student> students) {
+        if (!(students instanceof StudentTable)) {
+            return fallback.getDistinctFirstNames(students);
+        }
+        StudentTable table = (StudentTable) students;
+        BitSet seen = new BitSet(table.dictionarySize());
+        for (int code : table.firstNames) {
+            seen.set(code);
+        }
+        Set<String> result = new HashSet<>();
+        for (int code = seen.nextSetBit(0); code >= 0; code = seen.nextSetBit(code + 1)) {
+            result.add(table.name(code));
+        }
+        return result;
+    }
+
+    @Override
+    public String getMaxStudentFirstName(List<Student> students) {
+        if (!(students instanceof StudentTable)) {
+            return fallback.getMaxStudentFirstName(students);
+        }
+        StudentTable table = (StudentTable) students;
+        int max = -1;
+        for (int row = 0; row < table.size(); row++) {
+            if (max < 0 || table.ids[row] > table.ids[max]) {
+                max = row;
+            }
+        }
+        return max < 0 ? "" : table.name(table.firstNames[max]);
+    }
+
+    @Override
+    public List<Student> sortStudentsById(Collection<Student> students) {
+        if (!(students instanceof StudentTable)) {
+            return fallback.sortStudentsById(students);
+        }
+        StudentTable table = (StudentTable) students;
+        return students(table, sortRows(allRows(table), table.size(), table.ids), table.size());
+    }
+
+    @Override
+    public List<Student> sortStudentsByName(Collection<Student> students) {
+        if (!(students instanceof StudentTable)) {
+            return fallback.sortStudentsByName(students);
+        }
+        StudentTable table = (StudentTable) students;
+        return students(table, sortRows(allRows(table), table.size(), table.firstNames), table.size());
+    }
+
+    @Override
+    public List<Student> findStudentsByFirstName(Collection<Student> students, String name) {
+        if (!(students instanceof StudentTable)) {
+            return fallback.findStudentsByFirstName(students, name);
+        }
+        StudentTable table = (StudentTable) students;
+        int[] rows = new int[table.size()];
+        int count = select(table.firstNames, table.code(name), rows);
+        // All matches share the first name, so the stable order by name is the row order.
+        return students(table, rows, count);
+    }
+
+    @Override
+    public List<Student> findStudentsByLastName(Collection<Student> students, String name) {
+        if (!(students instanceof StudentTable)) {
+            return fallback.findStudentsByLastName(students, name);
+        }
+        StudentTable table = (StudentTable) students;
+        int[] rows = new int[table.size()];
+        int count = select(table.lastNames, table.code(name), rows);
+        return students(table, sortRows(rows, count, table.firstNames), count);
+    }
+
+    @Override
+    public List<Student> findStudentsByGroup(Collection<Student> students, GroupName group) {
+        if (!(students instanceof StudentTable)) {
+            return fallback.findStudentsByGroup(students, group);
+        }
+        StudentTable table = (StudentTable) students;
+        int[] rows = groupRows(table, group);
+        return students(table, sortRows(rows, rows.length, table.firstNames), rows.length);
+    }
+
+    @Override
+    public List<Student> sortStudentsById(Collection<Student> students, int offset, int limit) {
+        if (!(students instanceof StudentTable)) {
+            return fallback.sortStudentsById(students, offset, limit);
+        }
+        StudentTable table = (StudentTable) students;
+        return page(table, table.ids, row -> true, offset, limit);
+    }
+
+    @Override
+    public List<Student> sortStudentsByName(Collection<Student> students, int offset, int limit) {
+        if (!(students instanceof StudentTable)) {
+            return fallback.sortStudentsByName(students, offset, limit);
+        }
+        StudentTable table = (StudentTable) students;
+        return page(table, table.firstNames, row -> true, offset, limit);
+    }
+
+    @Override
+    public List<Student> findStudentsByFirstName(Collection<Student> students, String name, int offset, int limit) {
+        if (!(students instanceof StudentTable)) {
+            return fallback.findStudentsByFirstName(students, name, offset, limit);
+        }
+        StudentTable table = (StudentTable) students;
+        int code = table.code(name);
+        return page(table, table.firstNames, row -> table.firstNames[row] == code, offset, limit);
+    }
+
+    @Override
+    public List<Student> findStudentsByLastName(Collection<Student> students, String name, int offset, int limit) {
+        if (!(students instanceof StudentTable)) {
+            return fallback.findStudentsByLastName(students, name, offset, limit);
+        }
+        StudentTable table = (StudentTable) students;
+        int code = table.code(name);
+        return page(table, table.firstNames, row -> table.lastNames[row] == code, offset, limit);
+    }
+
+    @Override
+    public List<Student> findStudentsByGroup(Collection<Student> students, GroupName group, int offset, int limit) {
+        if (!(students instanceof StudentTable)) {
+            return fallback.findStudentsByGroup(students, group, offset, limit);
+        }
+        StudentTable table = (StudentTable) students;
+        return page(table, table.firstNames, row -> table.groups[row] == group.ordinal(), offset, limit);
+    }
+
+    @Override
+    public Map<String, String> findStudentNamesByGroup(Collection<Student> students, GroupName group) {
+        if (!(students instanceof StudentTable)) {
+            return fallback.findStudentNamesByGroup(students, group);
+        }
+        StudentTable table = (StudentTable) students;
+        int[] rows = groupRows(table, group);
+        sortRows(rows, rows.length, table.firstNames);
+        // Rows are in first name order, so the first row seen for a last name has the minimal first name.
+        Map<String, String> result = new HashMap<>();
+        for (int row : rows) {
+            result.putIfAbsent(table.name(table.lastNames[row]), table.name(table.firstNames[row]));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Group> getGroupsByName(Collection<Student> students) {
+        if (!(students instanceof StudentTable)) {
+            return fallback.getGroupsByName(students);
+        }
+        StudentTable table = (StudentTable) students;
+        return groups(table, table.firstNames);
+    }
+
+    @Override
+    public List<Group> getGroupsById(Collection<Student> students) {
+        if (!(students instanceof StudentTable)) {
+            return fallback.getGroupsById(students);
+        }
+        StudentTable table = (StudentTable) students;
+        return groups(table, table.ids);
+    }
+
+    @Override
+    public GroupName getLargestGroup(Collection<Student> students) {
+        if (!(students instanceof StudentTable)) {
+            return fallback.getLargestGroup(students);
+        }
+        StudentTable table = (StudentTable) students;
+        int[] counts = new int[GROUP_COUNT];
+        for (byte group : table.groups) {
+            counts[group]++;
+        }
+        // Ties go to the greatest group name.
+        int largest = -1;
+        for (int group = 0; group < GROUP_COUNT; group++) {
+            if (counts[group] > 0 && (largest < 0 || counts[group] >= counts[largest])) {
+                largest = group;
+            }
+        }
+        return largest < 0 ? null : StudentTable.group(largest);
+    }
+
+    @Override
+    public GroupName getLargestGroupFirstName(Collection<Student> students) {
+        if (!(students instanceof StudentTable)) {
+            return fallback.getLargestGroupFirstName(students);
+        }
+        StudentTable table = (StudentTable) students;
+        BitSet[] names = new BitSet[GROUP_COUNT];
+        for (int row = 0; row < table.size(); row++) {
+            int group = table.groups[row];
+            if (names[group] == null) {
+                names[group] = new BitSet(table.dictionarySize());
+            }
+            names[group].set(table.firstNames[row]);
+        }
+        // Ties go to the smallest group name.
+        int largest = -1;
+        int largestCount = 0;
+        for (int group = 0; group < GROUP_COUNT; group++) {
+            if (names[group] != null && (largest < 0 || names[group].cardinality() > largestCount)) {
+                largest = group;
+                largestCount = names[group].cardinality();
+            }
+        }
+        return largest < 0 ? null : StudentTable.group(largest);
+    }
+
+    private static List<Group> groups(StudentTable table, int[] key) {
+        int[] rows = allRows(table);
+        int[] starts = new int[GROUP_COUNT + 1];
+        for (byte group : table.groups) {
+            starts[group + 1]++;
+        }
+        for (int group = 0; group < GROUP_COUNT; group++) {
+            starts[group + 1] += starts[group];
+        }
+        int[] next = Arrays.copyOf(starts, GROUP_COUNT);
+        for (int row = 0; row < table.size(); row++) {
+            rows[next[table.groups[row]]++] = row;
+        }
+        List<Group> result = new ArrayList<>();
+        for (int group = 0; group < GROUP_COUNT; group++) {
+            int count = starts[group + 1] - starts[group];
+            if (count > 0) {
+                int[] groupRows = Arrays.copyOfRange(rows, starts[group], starts[group + 1]);
+                result.add(new Group(StudentTable.group(group),
+                        students(table, sortRows(groupRows, count, key), count)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns students of rows matching {@code filter} at positions {@code [offset, offset + limit)}
+     * of their stable order by {@code key}. Keeps the best {@code offset + limit} packed (key, row) values
+     * in a bounded max-heap, so only the returned rows become students.
+     */
+    private static List<Student> page(StudentTable table, int[] key, IntPredicate filter, int offset, int limit) {
+        TopK.checkPage(offset, limit);
+        int bound = (int) Math.min((long) offset + limit, table.size());
+        if (bound <= offset) {
+            return new ArrayList<>();
+        }
+        long[] heap = new long[bound];
+        int count = 0;
+        for (int row = 0; row < table.size(); row++) {
+            if (filter.test(row)) {
+                long packed = (long) key[row] << 32 | row;
+                if (count < bound) {
+                    heap[count] = packed;
+                    siftUp(heap, count++);
+                } else if (packed < heap[0]) {
+                    heap[0] = packed;
+                    siftDown(heap, count);
+                }
+            }
+        }
+        Arrays.sort(heap, 0, count);
+        List<Student> result = new ArrayList<>(Math.max(count - offset, 0));
+        for (int i = offset; i < count; i++) {
+            result.add(table.get((int) heap[i]));
+        }
+        return result;
+    }
+
+    private static void siftUp(long[] heap, int index) {
+        long value = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] >= value) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        long value = heap[0];
+        int index = 0;
+        while (2 * index + 1 < size) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (heap[child] <= value) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+
+    private static int[] allRows(StudentTable table) {
+        int[] rows = new int[table.size()];
+        for (int row = 0; row < rows.length; row++) {
+            rows[row] = row;
+        }
+        return rows;
+    }
+
+    private static int[] groupRows(StudentTable table, GroupName group) {
+        int[] rows = new int[table.size()];
+        int count = 0;
+        for (int row = 0; row < table.size(); row++) {
+            if (table.groups[row] == group.ordinal()) {
+                rows[count++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /** Stores rows having {@code code} in the column into {@code rows} and returns their number. */
+    private static int select(int[] column, int code, int[] rows) {
+        int count = 0;
+        if (code >= 0) {
+            for (int row = 0; row < column.length; row++) {
+                if (column[row] == code) {
+                    rows[count++] = row;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Stably sorts first {@code count} rows by their values in {@code key} and returns {@code rows}.
+     * Every row is packed with its key into one {@code long}, so that ties are broken by row number.
+     */
+    private static int[] sortRows(int[] rows, int count, int[] key) {
+        long[] packed = new long[count];
+        for (int i = 0; i < count; i++) {
+            packed[i] = (long) key[rows[i]] << 32 | rows[i];
+        }
+        Arrays.sort(packed);
+        for (int i = 0; i < count; i++) {
+            rows[i] = (int) packed[i];
+        }
+        return rows;
+    }
+
+    private static List<Student> students(StudentTable table, int[] rows, int count) {
+        List<Student> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(table.get(rows[i]));
+        }
+        return result;
+    }
+}
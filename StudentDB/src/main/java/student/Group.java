@@ -1,5 +1,7 @@
 package student;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -12,6 +14,12 @@ public class Group {
         this.students = List.copyOf(students);
     }
 
+    /** Wraps {@code students} without copying. The array must not be modified afterwards. */
+    Group(final GroupName name, final Student[] students) {
+        this.name = Objects.requireNonNull(name);
+        this.students = Collections.unmodifiableList(Arrays.asList(students));
+    }
+
     public GroupName getName() {
         return name;
     }
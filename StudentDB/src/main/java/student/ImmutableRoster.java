@@ -0,0 +1,10 @@
+package student;
+
+/**
+ * Roster that never changes after it is created. Such rosters may create a new {@link Student}
+ * on every access, so caches key them by identity instead of by their elements.
+ * {@link CachingStudentDB} trusts the marker and checks only the size of such rosters,
+ * so implementations must be final classes that cannot change.
+ */
+interface ImmutableRoster {
+}
@@ -0,0 +1,266 @@
+package student;
+
+import java.util.*;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * {@link GroupQuery} over a roster fixed at construction. Builds hash indexes on first name, last name
+ * and group together with orderings by id and by name once, so that queries on the roster
+ * take time proportional to the size of their result instead of the roster.
+ *
+ * <p>The indexes are reached in two ways. Methods without a collection argument, such as
+ * {@link #sortStudentsByName()} or {@link #findStudentsByGroup(GroupName)}, always query the indexed roster.
+ * {@link GroupQuery} methods use the indexes only if their argument is the very list returned by
+ * {@link #getStudents()}, compared by reference. Any other collection, including the one passed to
+ * the constructor, an equal copy or a sublist of the roster, is handed to {@link StudentDB} and costs
+ * a full scan or sort. The name, group and full name mappings always go to {@link StudentDB}, as they are
+ * linear anyway. Results are equal to ones of {@link StudentDB} for the same input; returned lists
+ * are unmodifiable.
+ */
+public class IndexedStudentDB implements GroupQuery {
+    private final StudentDB fallback = new StudentDB();
+
+    private final List<Student> students;
+    private final List<Student> byId;
+    private final List<Student> byName;
+    private final Map<String, List<Student>> byFirstName;
+    private final Map<String, List<Student>> byLastName;
+    private final Map<GroupName, List<Student>> byGroup;
+    private final List<Group> groupsByName;
+    private final List<Group> groupsById;
+    private final GroupName largestGroup;
+    private final GroupName largestGroupFirstName;
+    private final String maxStudentFirstName;
+
+    public IndexedStudentDB(final Collection<Student> students) {
+        this.students = List.copyOf(students);
+        this.byId = List.copyOf(fallback.sortStudentsById(this.students));
+        this.byName = List.copyOf(fallback.sortStudentsByName(this.students));
+        // Lists of the indexes keep the name order of byName, which is what find* methods return.
+        this.byFirstName = index(byName, Student::getFirstName);
+        this.byLastName = index(byName, Student::getLastName);
+        this.byGroup = new EnumMap<>(GroupName.class);
+        this.byGroup.putAll(index(byName, Student::getGroup));
+        this.groupsByName = groups(byName);
+        this.groupsById = groups(byId);
+        this.largestGroup = largest(group -> group.getStudents().size(), Comparator.naturalOrder());
+        this.largestGroupFirstName = largest(
+                group -> fallback.getDistinctFirstNames(group.getStudents()).size(), Comparator.reverseOrder());
+        this.maxStudentFirstName = fallback.getMaxStudentFirstName(this.students);
+    }
+
+    private static <K> Map<K, List<Student>> index(List<Student> ordered, Function<Student, K> key) {
+        return ordered.stream().collect(Collectors.groupingBy(key,
+                Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList)));
+    }
+
+    private static List<Group> groups(List<Student> ordered) {
+        Map<GroupName, List<Student>> groups = new EnumMap<>(GroupName.class);
+        for (Student student : ordered) {
+            groups.computeIfAbsent(student.getGroup(), g -> new ArrayList<>()).add(student);
+        }
+        return groups.entrySet().stream()
+                .map(e -> new Group(e.getKey(), e.getValue()))
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    private GroupName largest(Function<Group, Integer> size, Comparator<GroupName> keyComparator) {
+        return groupsByName.stream()
+                .max(Comparator.comparing(size).thenComparing(Group::getName, keyComparator))
+                .map(Group::getName)
+                .orElse(null);
+    }
+
+    /** Returns the indexed roster. Passing it to queries of this instance makes them use the indexes. */
+    public List<Student> getStudents() {
+        return students;
+    }
+
+    /** Whether queries on {@code students} may use the indexes; an equal collection is not enough. */
+    private boolean isIndexed(Collection<Student> students) {
+        return students == this.students;
+    }
+
+    /** Returns groups of the roster, with students within a group ordered by name. */
+    public List<Group> getGroupsByName() {
+        return groupsByName;
+    }
+
+    /** Returns groups of the roster, with students within a group ordered by id. */
+    public List<Group> getGroupsById() {
+        return groupsById;
+    }
+
+    /** Returns the group of the roster with most students, see {@link #getLargestGroup(Collection)}. */
+    public GroupName getLargestGroup() {
+        return largestGroup;
+    }
+
+    /**
+     * Returns the group of the roster with most distinct first names,
+     * see {@link #getLargestGroupFirstName(Collection)}.
+     */
+    public GroupName getLargestGroupFirstName() {
+        return largestGroupFirstName;
+    }
+
+    /** Returns distinct first names of the roster. */
+    public Set<String> getDistinctFirstNames() {
+        return new HashSet<>(byFirstName.keySet());
+    }
+
+    /** Returns first name of the student of the roster with maximal id, or an empty string. */
+    public String getMaxStudentFirstName() {
+        return maxStudentFirstName;
+    }
+
+    /** Returns students of the roster ordered by id. */
+    public List<Student> sortStudentsById() {
+        return byId;
+    }
+
+    /** Returns students of the roster ordered by name. */
+    public List<Student> sortStudentsByName() {
+        return byName;
+    }
+
+    /** Returns students having specified first name, ordered by name. */
+    public List<Student> findStudentsByFirstName(String name) {
+        return byFirstName.getOrDefault(name, List.of());
+    }
+
+    /** Returns students having specified last name, ordered by name. */
+    public List<Student> findStudentsByLastName(String name) {
+        return byLastName.getOrDefault(name, List.of());
+    }
+
+    /** Returns students of the specified group, ordered by name. */
+    public List<Student> findStudentsByGroup(GroupName group) {
+        return byGroup.getOrDefault(group, List.of());
+    }
+
+    @Override
+    public List<Group> getGroupsByName(Collection<Student> students) {
+        return isIndexed(students) ? getGroupsByName() : fallback.getGroupsByName(students);
+    }
+
+    @Override
+    public List<Group> getGroupsById(Collection<Student> students) {
+        return isIndexed(students) ? getGroupsById() : fallback.getGroupsById(students);
+    }
+
+    @Override
+    public GroupName getLargestGroup(Collection<Student> students) {
+        return isIndexed(students) ? getLargestGroup() : fallback.getLargestGroup(students);
+    }
+
+    @Override
+    public GroupName getLargestGroupFirstName(Collection<Student> students) {
+        return isIndexed(students) ? getLargestGroupFirstName() : fallback.getLargestGroupFirstName(students);
+    }
+
+    @Override
+    public List<String> getFirstNames(List<Student> students) {
+        return fallback.getFirstNames(students);
+    }
+
+    @Override
+    public List<String> getLastNames(List<Student> students) {
+        return fallback.getLastNames(students);
+    }
+
+    @Override
+    public List<GroupName> getGroups(List<Student> students) {
+        return fallback.getGroups(students);
+    }
+
+    @Override
+    public List<String> getFullNames(List<Student> students) {
+        return fallback.getFullNames(students);
+    }
+
+    @Override
+    public Set<String> getDistinctFirstNames(List<Student> students) {
+        return isIndexed(students) ? getDistinctFirstNames() : fallback.getDistinctFirstNames(students);
+    }
+
+    @Override
+    public String getMaxStudentFirstName(List<Student> students) {
+        return isIndexed(students) ? getMaxStudentFirstName() : fallback.getMaxStudentFirstName(students);
+    }
+
+    @Override
+    public List<Student> sortStudentsById(Collection<Student> students) {
+        return isIndexed(students) ? sortStudentsById() : fallback.sortStudentsById(students);
+    }
+
+    @Override
+    public List<Student> sortStudentsByName(Collection<Student> students) {
+        return isIndexed(students) ? sortStudentsByName() : fallback.sortStudentsByName(students);
+    }
+
+    @Override
+    public List<Student> findStudentsByFirstName(Collection<Student> students, String name) {
+        return isIndexed(students) ? findStudentsByFirstName(name) : fallback.findStudentsByFirstName(students, name);
+    }
+
+    @Override
+    public List<Student> findStudentsByLastName(Collection<Student> students, String name) {
+        return isIndexed(students) ? findStudentsByLastName(name) : fallback.findStudentsByLastName(students, name);
+    }
+
+    @Override
+    public List<Student> findStudentsByGroup(Collection<Student> students, GroupName group) {
+        return isIndexed(students) ? findStudentsByGroup(group) : fallback.findStudentsByGroup(students, group);
+    }
+
+    @Override
+    public List<Student> sortStudentsById(Collection<Student> students, int offset, int limit) {
+        return isIndexed(students)
+                ? TopK.page(byId, offset, limit)
+                : fallback.sortStudentsById(students, offset, limit);
+    }
+
+    @Override
+    public List<Student> sortStudentsByName(Collection<Student> students, int offset, int limit) {
+        return isIndexed(students)
+                ? TopK.page(byName, offset, limit)
+                : fallback.sortStudentsByName(students, offset, limit);
+    }
+
+    @Override
+    public List<Student> findStudentsByFirstName(Collection<Student> students, String name, int offset, int limit) {
+        return isIndexed(students)
+                ? TopK.page(findStudentsByFirstName(name), offset, limit)
+                : fallback.findStudentsByFirstName(students, name, offset, limit);
+    }
+
+    @Override
+    public List<Student> findStudentsByLastName(Collection<Student> students, String name, int offset, int limit) {
+        return isIndexed(students)
+                ? TopK.page(findStudentsByLastName(name), offset, limit)
+                : fallback.findStudentsByLastName(students, name, offset, limit);
+    }
+
+    @Override
+    public List<Student> findStudentsByGroup(Collection<Student> students, GroupName group, int offset, int limit) {
+        return isIndexed(students)
+                ? TopK.page(findStudentsByGroup(group), offset, limit)
+                : fallback.findStudentsByGroup(students, group, offset, limit);
+    }
+
+    @Override
+    public Map<String, String> findStudentNamesByGroup(Collection<Student> students, GroupName group) {
+        if (!isIndexed(students)) {
+            return fallback.findStudentNamesByGroup(students, group);
+        }
+        return findStudentsByGroup(group).stream()
+                .collect(Collectors.toMap(
+                        Student::getLastName,
+                        Student::getFirstName,
+                        BinaryOperator.minBy(Comparator.naturalOrder())
+                ));
+    }
+}
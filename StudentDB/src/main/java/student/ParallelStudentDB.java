@@ -0,0 +1,46 @@
+package student;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * {@link StudentDB} running the scans, sorts and groupings of large inputs in parallel.
+ * Inputs smaller than the threshold are processed sequentially, where splitting costs more than it saves.
+ *
+ * <p>Results are equal to ones of {@link StudentDB}, including order of lists and tie-breaking:
+ * every parallel stage preserves encounter order, and hash-based maps and sets are filled sequentially
+ * from ordered intermediate results, so even their iteration order matches.
+ */
+public class ParallelStudentDB extends StudentDB {
+    public static final int DEFAULT_THRESHOLD = 10_000;
+
+    private final int threshold;
+
+    public ParallelStudentDB() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    /** Processes inputs of at least {@code threshold} students in parallel. */
+    public ParallelStudentDB(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Expected non-negative threshold");
+        }
+        this.threshold = threshold;
+    }
+
+    @Override
+    protected <T> Stream<T> stream(Collection<T> collection) {
+        return collection.size() < threshold ? collection.stream() : collection.parallelStream();
+    }
+
+    @Override
+    protected <T> void sort(T[] array, Comparator<? super T> comparator) {
+        if (array.length < threshold) {
+            Arrays.sort(array, comparator);
+        } else {
+            Arrays.parallelSort(array, comparator);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package student;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Binary roster files. A roster is opened either as a lazy {@link List} over the memory-mapped file,
+ * which creates students only for the rows accessed, or as a {@link StudentTable} read from its columns
+ * without creating students at all.
+ *
+ * <p>File format, little-endian: magic, version, student count {@code n} and name count {@code d}
+ * as four ints; then {@code n} ids, {@code n} first name codes and {@code n} last name codes as ints;
+ * {@code n} group ordinals as bytes, padded to a multiple of four; finally the string table of
+ * {@code d + 1} int offsets followed by the UTF-8 bytes of the names, sorted lexicographically.
+ * A file may not exceed 2 GiB.
+ */
+public final class RosterFile {
+    private static final int MAGIC = 0x53524F53;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 * Integer.BYTES;
+    private static final GroupName[] GROUPS = GroupName.values();
+
+    private RosterFile() {
+    }
+
+    /** Writes the roster to a temporary file next to {@code file} and atomically replaces {@code file} with it. */
+    public static void write(Collection<Student> students, Path file) throws IOException {
+        StudentTable table = students instanceof StudentTable ? (StudentTable) students : new StudentTable(students);
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            write(table, temp);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void write(StudentTable table, Path file) throws IOException {
+        int size = table.size();
+        try (Output out = new Output(file, size, table.dictionarySize())) {
+            for (int[] column : List.of(table.ids, table.firstNames, table.lastNames)) {
+                for (int value : column) {
+                    out.reserve(Integer.BYTES).putInt(value);
+                }
+            }
+            for (byte group : table.groups) {
+                out.reserve(1).put(group);
+            }
+            for (int i = size; i % Integer.BYTES != 0; i++) {
+                out.reserve(1).put((byte) 0);
+            }
+
+            byte[][] names = new byte[table.dictionarySize()][];
+            int offset = 0;
+            out.reserve(Integer.BYTES).putInt(offset);
+            for (int code = 0; code < names.length; code++) {
+                names[code] = table.name(code).getBytes(StandardCharsets.UTF_8);
+                offset += names[code].length;
+                out.reserve(Integer.BYTES).putInt(offset);
+            }
+            for (byte[] name : names) {
+                for (int i = 0; i < name.length; ) {
+                    ByteBuffer buffer = out.reserve(1);
+                    int length = Math.min(buffer.remaining(), name.length - i);
+                    buffer.put(name, i, length);
+                    i += length;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns read-only list decoding students from the mapped file on access.
+     * Rows are validated when the file is opened, so access never fails on a malformed file.
+     */
+    public static List<Student> open(Path file) throws IOException {
+        return new MappedRoster(file);
+    }
+
+    /** Reads columns and names of the file into a {@link StudentTable}. */
+    public static StudentTable openTable(Path file) throws IOException {
+        MappedRoster roster = new MappedRoster(file);
+        int size = roster.size;
+        int[] ids = new int[size];
+        int[] firstNames = new int[size];
+        int[] lastNames = new int[size];
+        byte[] groups = new byte[size];
+        roster.ids.duplicate().get(ids);
+        roster.firstNames.duplicate().get(firstNames);
+        roster.lastNames.duplicate().get(lastNames);
+        roster.groups.duplicate().get(groups);
+        String[] dictionary = new String[roster.names.length];
+        for (int code = 0; code < dictionary.length; code++) {
+            dictionary[code] = roster.name(code);
+        }
+        return new StudentTable(ids, groups, firstNames, lastNames, dictionary);
+    }
+
+    private static ByteBuffer slice(ByteBuffer data, long offset, long length) throws IOException {
+        if (offset + length > data.capacity()) {
+            throw new IOException("Malformed roster: file is truncated");
+        }
+        ByteBuffer slice = data.duplicate();
+        slice.position((int) offset).limit((int) (offset + length));
+        return slice.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /** Read-only list over a mapped roster file. Names are decoded once per distinct name. */
+    private static final class MappedRoster extends AbstractList<Student> implements RandomAccess, ImmutableRoster {
+        private final int size;
+        private final IntBuffer ids;
+        private final IntBuffer firstNames;
+        private final IntBuffer lastNames;
+        private final ByteBuffer groups;
+        private final IntBuffer offsets;
+        private final ByteBuffer bytes;
+        // Racy caching is harmless: strings are immutable and every thread decodes the same value.
+        private final String[] names;
+
+        private MappedRoster(Path file) throws IOException {
+            ByteBuffer data = map(file);
+            size = data.getInt(2 * Integer.BYTES);
+            int nameCount = data.getInt(3 * Integer.BYTES);
+            if (size < 0 || nameCount < 0) {
+                throw new IOException("Malformed roster: negative size");
+            }
+            long column = (long) size * Integer.BYTES;
+            ids = slice(data, HEADER_SIZE, column).asIntBuffer();
+            firstNames = slice(data, HEADER_SIZE + column, column).asIntBuffer();
+            lastNames = slice(data, HEADER_SIZE + 2 * column, column).asIntBuffer();
+            groups = slice(data, HEADER_SIZE + 3 * column, size);
+            long tableStart = HEADER_SIZE + 3 * column + (size + 3L) / 4 * 4;
+            long offsetsSize = (nameCount + 1L) * Integer.BYTES;
+            offsets = slice(data, tableStart, offsetsSize).asIntBuffer();
+            bytes = slice(data, tableStart + offsetsSize, data.capacity() - tableStart - offsetsSize);
+            if (offsets.get(0) != 0 || offsets.get(nameCount) != bytes.capacity()) {
+                throw new IOException("Malformed roster: string data size mismatch");
+            }
+            for (int code = 0; code < nameCount; code++) {
+                if (offsets.get(code) > offsets.get(code + 1)) {
+                    throw new IOException("Malformed roster: name offsets are not ascending");
+                }
+            }
+            for (int row = 0; row < size; row++) {
+                if (groups.get(row) < 0 || groups.get(row) >= GROUPS.length) {
+                    throw new IOException("Malformed roster: unknown group " + groups.get(row));
+                }
+                checkName(firstNames.get(row), nameCount);
+                checkName(lastNames.get(row), nameCount);
+            }
+            names = new String[nameCount];
+        }
+
+        private static void checkName(int code, int nameCount) throws IOException {
+            if (code < 0 || code >= nameCount) {
+                throw new IOException("Malformed roster: unknown name " + code);
+            }
+        }
+
+        private static ByteBuffer map(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (channel.size() > Integer.MAX_VALUE) {
+                    throw new IOException("Rosters larger than 2 GiB are not supported");
+                }
+                if (channel.size() < HEADER_SIZE) {
+                    throw new IOException("Malformed roster: file is too short");
+                }
+                MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                data.order(ByteOrder.LITTLE_ENDIAN);
+                if (data.getInt(0) != MAGIC || data.getInt(Integer.BYTES) != VERSION) {
+                    throw new IOException("Not a roster file: " + file);
+                }
+                return data;
+            }
+        }
+
+        private String name(int code) {
+            String name = names[code];
+            if (name == null) {
+                ByteBuffer value = bytes.duplicate();
+                value.limit(offsets.get(code + 1)).position(offsets.get(code));
+                name = StandardCharsets.UTF_8.decode(value).toString();
+                names[code] = name;
+            }
+            return name;
+        }
+
+        @Override
+        public Student get(int index) {
+            Objects.checkIndex(index, size);
+            return new Student(ids.get(index), name(firstNames.get(index)), name(lastNames.get(index)),
+                    GROUPS[groups.get(index)]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /** Buffered little-endian writer of a roster file, with the header already written. */
+    private static class Output implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+
+        private Output(Path file, int size, int nameCount) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(nameCount);
+        }
+
+        /** Returns buffer with room for at least {@code bytes} more bytes. */
+        private ByteBuffer reserve(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+            return buffer;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package student;
+
+import java.util.*;
+
+/**
+ * {@link GroupQuery} over a roster changed by add and remove events. Per-group student counts and
+ * multisets of first names are updated with every event, so the largest group queries on the roster
+ * take time proportional to the number of groups and build no intermediate lists.
+ *
+ * <p>Students are identified by {@link Student#getId() id}: adding a student with an id already present
+ * replaces the previous one. Queries receiving the live roster, as returned by {@link #getStudents()},
+ * use the maintained aggregates, other queries are handed to {@link StudentDB}.
+ * Instances are not thread-safe.
+ */
+public class StreamingStudentDB implements GroupQuery {
+    private static final GroupName[] GROUPS = GroupName.values();
+
+    private final StudentDB fallback = new StudentDB();
+    private final Map<Integer, Student> roster = new LinkedHashMap<>();
+    private final Collection<Student> students = Collections.unmodifiableCollection(roster.values());
+    private final int[] counts = new int[GROUPS.length];
+    private final List<Map<String, Integer>> firstNames = new ArrayList<>(GROUPS.length);
+
+    public StreamingStudentDB() {
+        for (int i = 0; i < GROUPS.length; i++) {
+            firstNames.add(new HashMap<>());
+        }
+    }
+
+    public StreamingStudentDB(final Collection<Student> students) {
+        this();
+        students.forEach(this::add);
+    }
+
+    /**
+     * Adds student to the end of the roster, replacing one with the same id.
+     * Returns the replaced student or {@code null}.
+     */
+    public Student add(Student student) {
+        Student previous = remove(student.getId());
+        roster.put(student.getId(), student);
+        int group = student.getGroup().ordinal();
+        counts[group]++;
+        firstNames.get(group).merge(student.getFirstName(), 1, Integer::sum);
+        return previous;
+    }
+
+    /** Removes student with the given id from the roster. Returns the removed student or {@code null}. */
+    public Student remove(int id) {
+        Student removed = roster.remove(id);
+        if (removed != null) {
+            unaccount(removed);
+        }
+        return removed;
+    }
+
+    private void unaccount(Student student) {
+        int group = student.getGroup().ordinal();
+        counts[group]--;
+        firstNames.get(group).computeIfPresent(student.getFirstName(), (name, count) -> count == 1 ? null : count - 1);
+    }
+
+    /** Returns unmodifiable live view of the roster in order of addition. */
+    public Collection<Student> getStudents() {
+        return students;
+    }
+
+    /**
+     * Returns group of the roster containing maximum number of students.
+     * If there are more than one largest group, the one with greatest name is returned.
+     */
+    public GroupName getLargestGroup() {
+        int largest = -1;
+        for (int group = 0; group < GROUPS.length; group++) {
+            if (counts[group] > 0 && (largest < 0 || counts[group] >= counts[largest])) {
+                largest = group;
+            }
+        }
+        return largest < 0 ? null : GROUPS[largest];
+    }
+
+    /**
+     * Returns group of the roster containing maximum number of students with distinct first names.
+     * If there are more than one largest group, the one with smallest name is returned.
+     */
+    public GroupName getLargestGroupFirstName() {
+        int largest = -1;
+        for (int group = 0; group < GROUPS.length; group++) {
+            int distinct = firstNames.get(group).size();
+            if (distinct > 0 && (largest < 0 || distinct > firstNames.get(largest).size())) {
+                largest = group;
+            }
+        }
+        return largest < 0 ? null : GROUPS[largest];
+    }
+
+    @Override
+    public GroupName getLargestGroup(Collection<Student> students) {
+        return students == this.students ? getLargestGroup() : fallback.getLargestGroup(students);
+    }
+
+    @Override
+    public GroupName getLargestGroupFirstName(Collection<Student> students) {
+        return students == this.students ? getLargestGroupFirstName() : fallback.getLargestGroupFirstName(students);
+    }
+
+    @Override
+    public List<Group> getGroupsByName(Collection<Student> students) {
+        return fallback.getGroupsByName(students);
+    }
+
+    @Override
+    public List<Group> getGroupsById(Collection<Student> students) {
+        return fallback.getGroupsById(students);
+    }
+
+    @Override
+    public List<String> getFirstNames(List<Student> students) {
+        return fallback.getFirstNames(students);
+    }
+
+    @Override
+    public List<String> getLastNames(List<Student> students) {
+        return fallback.getLastNames(students);
+    }
+
+    @Override
+    public List<GroupName> getGroups(List<Student> students) {
+        return fallback.getGroups(students);
+    }
+
+    @Override
+    public List<String> getFullNames(List<Student> students) {
+        return fallback.getFullNames(students);
+    }
+
+    @Override
+    public Set<String> getDistinctFirstNames(List<Student> students) {
+        return fallback.getDistinctFirstNames(students);
+    }
+
+    @Override
+    public String getMaxStudentFirstName(List<Student> students) {
+        return fallback.getMaxStudentFirstName(students);
+    }
+
+    @Override
+    public List<Student> sortStudentsById(Collection<Student> students) {
+        return fallback.sortStudentsById(students);
+    }
+
+    @Override
+    public List<Student> sortStudentsByName(Collection<Student> students) {
+        return fallback.sortStudentsByName(students);
+    }
+
+    @Override
+    public List<Student> findStudentsByFirstName(Collection<Student> students, String name) {
+        return fallback.findStudentsByFirstName(students, name);
+    }
+
+    @Override
+    public List<Student> findStudentsByLastName(Collection<Student> students, String name) {
+        return fallback.findStudentsByLastName(students, name);
+    }
+
+    @Override
+    public List<Student> findStudentsByGroup(Collection<Student> students, GroupName group) {
+        return fallback.findStudentsByGroup(students, group);
+    }
+
+    @Override
+    public Map<String, String> findStudentNamesByGroup(Collection<Student> students, GroupName group) {
+        return fallback.findStudentNamesByGroup(students, group);
+    }
+}
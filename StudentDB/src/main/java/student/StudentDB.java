@@ -5,34 +5,45 @@ import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class StudentDB implements GroupQuery {
 
+    /** Returns stream of the elements used by the query pipelines of this instance. */
+    protected <T> Stream<T> stream(Collection<T> collection) {
+        return collection.stream();
+    }
+
+    /** Stably sorts {@code array} in place. */
+    protected <T> void sort(T[] array, Comparator<? super T> comparator) {
+        Arrays.sort(array, comparator);
+    }
+
     private <T> List<T> studentMapper(Collection<Student> students, Function<Student, T> mapping) {
-        return students
-                .stream()
+        return stream(students)
                 .map(mapping)
                 .collect(Collectors.toList());
     }
 
     private <T extends Comparable<? super T> > List<Student> studentSort(Collection<Student> students, Function<Student, T> key) {
-        return students
-                .stream()
+        return stream(students)
                 .sorted(Comparator.comparing(key))
                 .collect(Collectors.toList());
     }
 
     private List<Student> findStudentsBy(Collection<Student> students, Predicate<Student> predicate) {
-        return students
-                .stream()
+        return stream(students)
                 .filter(predicate)
                 .collect(Collectors.toList());
     }
 
+    private Map<GroupName, List<Student>> groupByName(Collection<Student> students) {
+        return stream(students)
+                .collect(Collectors.groupingBy(Student::getGroup, () -> new EnumMap<>(GroupName.class), Collectors.toList()));
+    }
+
     public List<Group> getGroupsBy(Collection<Student> students, Function<List<Student>, List<Student>> mapper) {
-        return students
-                .stream()
-                .collect(Collectors.groupingBy(Student::getGroup))
+        return groupByName(students)
                 .entrySet()
                 .stream()
                 .map(e -> new Group(e.getKey(), mapper.apply(e.getValue())))
@@ -43,27 +54,50 @@ public class StudentDB implements GroupQuery {
 
     @Override
     public List<Group> getGroupsByName(Collection<Student> students) {
-        return getGroupsBy(students,
-                s -> s.stream()
-                .sorted(Comparator.comparing(Student::getFirstName))
-                .collect(Collectors.toList()));
+        return getGroupsSortedBy(students, Comparator.comparing(Student::getFirstName));
     }
 
     @Override
     public List<Group> getGroupsById(Collection<Student> students) {
-        return getGroupsBy(students,
-                s -> s.stream()
-                        .sorted(Comparator.comparing(Student::getId))
-                        .collect(Collectors.toList()));
+        return getGroupsSortedBy(students, Comparator.comparingInt(Student::getId));
+    }
+
+    /**
+     * Groups students into arrays presized from per-group counts, sorts every array in place
+     * and wraps it into its group without further copies.
+     */
+    private List<Group> getGroupsSortedBy(Collection<Student> students, Comparator<Student> comparator) {
+        GroupName[] names = GroupName.values();
+        int[] counts = new int[names.length];
+        for (Student student : students) {
+            counts[student.getGroup().ordinal()]++;
+        }
+        Student[][] groups = new Student[names.length][];
+        int present = 0;
+        for (int i = 0; i < names.length; i++) {
+            groups[i] = new Student[counts[i]];
+            present += counts[i] > 0 ? 1 : 0;
+            counts[i] = 0;
+        }
+        for (Student student : students) {
+            int group = student.getGroup().ordinal();
+            groups[group][counts[group]++] = student;
+        }
+        List<Group> result = new ArrayList<>(present);
+        for (int i = 0; i < names.length; i++) {
+            if (counts[i] > 0) {
+                sort(groups[i], comparator);
+                result.add(new Group(names[i], groups[i]));
+            }
+        }
+        return result;
     }
 
     private GroupName getLargestGroupFromStudentsBy(Collection<Student> students,
                                                    Function<List<Student>, Integer> mapper,
                                                    Comparator<GroupName> keyComparator
                                                    ) {
-        return students
-                .stream()
-                .collect(Collectors.groupingBy(Student::getGroup))
+        return groupByName(students)
                 .entrySet()
                 .stream()
                 .collect(Collectors.toMap(Map.Entry::getKey, e -> mapper.apply(e.getValue())))
@@ -82,7 +116,7 @@ public class StudentDB implements GroupQuery {
 
     @Override
     public GroupName getLargestGroupFirstName(Collection<Student> students) {
-        return getLargestGroupFromStudentsBy(students, s -> getDistinctFirstNames(s).size(), Comparator.reverseOrder());;
+        return getLargestGroupFromStudentsBy(students, s -> getDistinctFirstNames(s).size(), Comparator.reverseOrder());
     }
 
     @Override
@@ -112,7 +146,7 @@ public class StudentDB implements GroupQuery {
 
     @Override
     public String getMaxStudentFirstName(List<Student> students) {
-        return students.stream().
+        return stream(students).
                 max(Comparator.comparingInt(Student::getId)).
                 map(Student::getFirstName).orElse("");
     }
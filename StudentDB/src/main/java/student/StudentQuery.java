@@ -1,6 +1,7 @@
 package student;
 
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -43,6 +44,37 @@ public interface StudentQuery {
     /** Returns map of group's student last names mapped to minimal first name. */
     Map<String, String> findStudentNamesByGroup(Collection<Student> students, GroupName group);
 
+    /**
+     * Returns page of {@link #sortStudentsById(Collection)}: up to {@code limit} students starting at {@code offset}.
+     * Selects them with a bounded heap instead of sorting all students.
+     */
+    default List<Student> sortStudentsById(Collection<Student> students, int offset, int limit) {
+        return TopK.select(students, student -> true, Comparator.comparingInt(Student::getId), offset, limit);
+    }
+
+    /** Returns page of {@link #sortStudentsByName(Collection)}, see {@link #sortStudentsById(Collection, int, int)}. */
+    default List<Student> sortStudentsByName(Collection<Student> students, int offset, int limit) {
+        return TopK.select(students, student -> true, Comparator.comparing(Student::getFirstName), offset, limit);
+    }
+
+    /** Returns page of {@link #findStudentsByFirstName(Collection, String)}, see {@link #sortStudentsById(Collection, int, int)}. */
+    default List<Student> findStudentsByFirstName(Collection<Student> students, String name, int offset, int limit) {
+        return TopK.select(students, student -> student.getFirstName().equals(name),
+                Comparator.comparing(Student::getFirstName), offset, limit);
+    }
+
+    /** Returns page of {@link #findStudentsByLastName(Collection, String)}, see {@link #sortStudentsById(Collection, int, int)}. */
+    default List<Student> findStudentsByLastName(Collection<Student> students, String name, int offset, int limit) {
+        return TopK.select(students, student -> student.getLastName().equals(name),
+                Comparator.comparing(Student::getFirstName), offset, limit);
+    }
+
+    /** Returns page of {@link #findStudentsByGroup(Collection, GroupName)}, see {@link #sortStudentsById(Collection, int, int)}. */
+    default List<Student> findStudentsByGroup(Collection<Student> students, GroupName group, int offset, int limit) {
+        return TopK.select(students, student -> student.getGroup().equals(group),
+                Comparator.comparing(Student::getFirstName), offset, limit);
+    }
+
     /** Stable version of {@link #findStudentNamesByGroup(Collection, GroupName)} */
     default List<Map.Entry<String, String>> findStudentNamesByGroupList(final List<Student> students, final GroupName group) {
         return findStudentNamesByGroup(students, group).entrySet().stream()
@@ -0,0 +1,89 @@
+package student;
+
+import java.util.*;
+
+/**
+ * Immutable roster stored by columns: ids, group ordinals, and first and last names encoded as
+ * indices into a shared dictionary of distinct names. The dictionary is sorted, so comparing codes
+ * orders names the same way as comparing strings.
+ *
+ * <p>As a {@link List}, the table creates a new {@link Student} for every row it returns.
+ * {@link ColumnarStudentDB} answers queries on tables from the columns directly.
+ */
+public final class StudentTable extends AbstractList<Student> implements RandomAccess, ImmutableRoster {
+    private static final GroupName[] GROUPS = GroupName.values();
+
+    final int[] ids;
+    final byte[] groups;
+    final int[] firstNames;
+    final int[] lastNames;
+    final String[] dictionary;
+
+    public StudentTable(final Collection<Student> students) {
+        int size = students.size();
+        this.ids = new int[size];
+        this.groups = new byte[size];
+        this.firstNames = new int[size];
+        this.lastNames = new int[size];
+
+        Set<String> names = new HashSet<>();
+        for (Student student : students) {
+            names.add(student.getFirstName());
+            names.add(student.getLastName());
+        }
+        this.dictionary = names.toArray(new String[0]);
+        Arrays.sort(dictionary);
+        Map<String, Integer> codes = new HashMap<>(dictionary.length * 2);
+        for (int i = 0; i < dictionary.length; i++) {
+            codes.put(dictionary[i], i);
+        }
+
+        int row = 0;
+        for (Student student : students) {
+            ids[row] = student.getId();
+            groups[row] = (byte) student.getGroup().ordinal();
+            firstNames[row] = codes.get(student.getFirstName());
+            lastNames[row] = codes.get(student.getLastName());
+            row++;
+        }
+    }
+
+    /** Wraps columns without copying; {@code dictionary} must be sorted and contain every coded name. */
+    StudentTable(int[] ids, byte[] groups, int[] firstNames, int[] lastNames, String[] dictionary) {
+        this.ids = ids;
+        this.groups = groups;
+        this.firstNames = firstNames;
+        this.lastNames = lastNames;
+        this.dictionary = dictionary;
+    }
+
+    /** Returns dictionary code of {@code name}, or a negative value if no student has it. */
+    int code(String name) {
+        return Arrays.binarySearch(dictionary, name);
+    }
+
+    String name(int code) {
+        return dictionary[code];
+    }
+
+    static GroupName group(int ordinal) {
+        return GROUPS[ordinal];
+    }
+
+    /** Returns number of distinct names, which bounds the name codes. */
+    public int dictionarySize() {
+        return dictionary.length;
+    }
+
+    @Override
+    public Student get(int index) {
+        Objects.checkIndex(index, ids.length);
+        return new Student(ids[index], dictionary[firstNames[index]], dictionary[lastNames[index]],
+                GROUPS[groups[index]]);
+    }
+
+    @Override
+    public int size() {
+        return ids.length;
+    }
+}
@@ -0,0 +1,71 @@
+package student;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/** Bounded-heap selection of a page of the stably sorted matching elements. */
+final class TopK {
+    private TopK() {
+    }
+
+    /**
+     * Returns elements matching {@code filter} that would be at positions {@code [offset, offset + limit)}
+     * after a stable sort by {@code order}. Keeps at most {@code offset + limit} candidates in a heap,
+     * taking {@code O(n log (offset + limit))} time.
+     */
+    static <T> List<T> select(Collection<T> elements, Predicate<? super T> filter, Comparator<? super T> order,
+                              int offset, int limit) {
+        checkPage(offset, limit);
+        int bound = (int) Math.min((long) offset + limit, elements.size());
+        if (bound <= offset) {
+            return new ArrayList<>();
+        }
+        // Ties are broken by position, which is what a stable sort keeps; the heap head is the worst candidate.
+        Comparator<Candidate<T>> candidateOrder = Comparator.<Candidate<T>, T>comparing(c -> c.element, order)
+                .thenComparingInt(c -> c.index);
+        PriorityQueue<Candidate<T>> heap = new PriorityQueue<>(bound, candidateOrder.reversed());
+        int index = 0;
+        for (T element : elements) {
+            if (filter.test(element)) {
+                Candidate<T> candidate = new Candidate<>(element, index);
+                if (heap.size() < bound) {
+                    heap.add(candidate);
+                } else if (candidateOrder.compare(candidate, heap.peek()) < 0) {
+                    heap.poll();
+                    heap.add(candidate);
+                }
+            }
+            index++;
+        }
+        List<Candidate<T>> candidates = new ArrayList<>(heap);
+        candidates.sort(candidateOrder);
+        List<T> result = new ArrayList<>(Math.max(candidates.size() - offset, 0));
+        for (int i = offset; i < candidates.size(); i++) {
+            result.add(candidates.get(i).element);
+        }
+        return result;
+    }
+
+    /** Returns view of positions {@code [offset, offset + limit)} of an already sorted list, clamped to its size. */
+    static <T> List<T> page(List<T> sorted, int offset, int limit) {
+        checkPage(offset, limit);
+        int from = Math.min(offset, sorted.size());
+        return sorted.subList(from, (int) Math.min((long) from + limit, sorted.size()));
+    }
+
+    static void checkPage(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Expected non-negative offset and limit");
+        }
+    }
+
+    private static class Candidate<T> {
+        private final T element;
+        private final int index;
+
+        private Candidate(T element, int index) {
+            this.element = element;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package student;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static student.StudentFixtures.describe;
+
+class CachingStudentDBTest {
+    private final StudentDB reference = new StudentDB();
+    private final Random random = new Random(1153);
+
+    @Test
+    void hitsAndMisses() {
+        CachingStudentDB db = new CachingStudentDB();
+        List<Student> students = StudentFixtures.randomStudents(random, 100);
+        db.sortStudentsById(students);
+        assertCounts(db, 0, 1);
+        db.sortStudentsById(students);
+        db.sortStudentsById(students, 10, 5);
+        assertCounts(db, 2, 1);
+
+        // searches by name share the ordering by name, searches by group the partition
+        db.sortStudentsByName(students);
+        db.findStudentsByFirstName(students, "Anna");
+        db.findStudentsByLastName(students, "Petrov", 1, 2);
+        assertCounts(db, 4, 2);
+        db.getGroupsByName(students);
+        db.findStudentsByGroup(students, GroupName.M3235);
+        db.findStudentNamesByGroup(students, GroupName.M3236);
+        assertCounts(db, 6, 3);
+
+        // an equal copy is another collection
+        db.sortStudentsById(new ArrayList<>(students));
+        assertCounts(db, 6, 4);
+    }
+
+    @Test
+    void resultsMayBeModified() {
+        CachingStudentDB db = new CachingStudentDB();
+        List<Student> students = StudentFixtures.randomStudents(random, 20);
+        List<String> expected = describe(reference.sortStudentsByName(students));
+        db.sortStudentsByName(students).clear();
+        db.findStudentsByGroup(students, GroupName.M3234).clear();
+        assertEquals(expected, describe(db.sortStudentsByName(students)));
+        assertEquals(describe(reference.findStudentsByGroup(students, GroupName.M3234)),
+                describe(db.findStudentsByGroup(students, GroupName.M3234)));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        CachingStudentDB db = new CachingStudentDB(new StudentDB(), 2);
+        List<Student> first = StudentFixtures.randomStudents(random, 10);
+        List<Student> second = StudentFixtures.randomStudents(random, 10);
+        List<Student> third = StudentFixtures.randomStudents(random, 10);
+        db.sortStudentsById(first);
+        db.sortStudentsById(second);
+        db.sortStudentsById(first);
+        assertCounts(db, 1, 2);
+
+        // second is now the least recently used
+        db.sortStudentsById(third);
+        assertCounts(db, 1, 3);
+        db.sortStudentsById(first);
+        db.sortStudentsById(third);
+        assertCounts(db, 3, 3);
+        db.sortStudentsById(second);
+        assertCounts(db, 3, 4);
+        assertEquals(describe(reference.sortStudentsById(second)), describe(db.sortStudentsById(second)));
+
+        assertThrows(IllegalArgumentException.class, () -> new CachingStudentDB(new StudentDB(), 0));
+    }
+
+    @Test
+    void recomputesAfterMutation() {
+        CachingStudentDB db = new CachingStudentDB();
+        List<Student> students = StudentFixtures.randomStudents(random, 50);
+        db.sortStudentsByName(students);
+
+        students.add(new Student(1000, "Aaron", "Adams", GroupName.M3239));
+        assertEquals(describe(reference.sortStudentsByName(students)), describe(db.sortStudentsByName(students)));
+        assertCounts(db, 0, 2);
+
+        // same size, one element replaced
+        Student removed = students.set(10, new Student(1001, "Aaron", "Baker", GroupName.M3234));
+        assertNotNull(removed);
+        assertEquals(describe(reference.sortStudentsByName(students)), describe(db.sortStudentsByName(students)));
+        assertCounts(db, 0, 3);
+
+        // same elements, another order
+        Student swapped = students.set(0, students.get(1));
+        students.set(1, swapped);
+        assertEquals(describe(reference.sortStudentsByName(students)), describe(db.sortStudentsByName(students)));
+        assertEquals(describe(reference.getGroupsById(students).get(0).getStudents()),
+                describe(db.getGroupsById(students).get(0).getStudents()));
+        assertCounts(db, 0, 5);
+        db.sortStudentsByName(students);
+        assertCounts(db, 1, 5);
+    }
+
+    @Test
+    void invalidate() {
+        CachingStudentDB db = new CachingStudentDB();
+        List<Student> students = StudentFixtures.randomStudents(random, 30);
+        List<Student> other = StudentFixtures.randomStudents(random, 30);
+        db.sortStudentsById(students);
+        db.sortStudentsById(other);
+        db.invalidate(students);
+        db.sortStudentsById(students);
+        db.sortStudentsById(other);
+        assertCounts(db, 1, 3);
+        db.clear();
+        db.sortStudentsById(other);
+        assertCounts(db, 1, 4);
+    }
+
+    @Test
+    void immutableRosterHitsBySize() {
+        CachingStudentDB db = new CachingStudentDB();
+        List<Student> students = StudentFixtures.randomStudents(random, 40);
+        StudentTable table = new StudentTable(students);
+        List<String> expected = describe(reference.sortStudentsByName(students));
+        assertEquals(expected, describe(db.sortStudentsByName(table)));
+        // the table creates new students on every access, and is still recognized
+        assertEquals(expected, describe(db.sortStudentsByName(table)));
+        assertEquals(describe(reference.findStudentsByFirstName(students, "Ivan")),
+                describe(db.findStudentsByFirstName(table, "Ivan")));
+        assertCounts(db, 2, 1);
+    }
+
+    private static void assertCounts(CachingStudentDB db, long hits, long misses) {
+        assertEquals(hits, db.getHits(), "hits");
+        assertEquals(misses, db.getMisses(), "misses");
+    }
+}
@@ -0,0 +1,136 @@
+package student;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static student.StudentFixtures.describe;
+
+class RosterFileTest {
+    private static final int HEADER_SIZE = 16;
+
+    @TempDir
+    Path dir;
+
+    private final Random random = new Random(8191);
+
+    @Test
+    void roundTrip() throws IOException {
+        for (int size : new int[]{0, 1, 5, 1000}) {
+            final List<Student> students = StudentFixtures.randomStudents(random, size);
+            final Path file = dir.resolve("roster" + size);
+            RosterFile.write(students, file);
+            assertEquals(describe(students), describe(RosterFile.open(file)));
+            assertEquals(describe(students), describe(RosterFile.openTable(file)));
+        }
+    }
+
+    @Test
+    void roundTripFromTable() throws IOException {
+        final List<Student> students = StudentFixtures.randomStudents(random, 100);
+        final Path file = dir.resolve("roster");
+        RosterFile.write(new StudentTable(students), file);
+        assertEquals(describe(students), describe(RosterFile.openTable(file)));
+    }
+
+    @Test
+    void nonAsciiNames() throws IOException {
+        final List<Student> students = List.of(
+                new Student(1, "\u0418\u0432\u0430\u043d", "", GroupName.M3234),
+                new Student(2, "\ud83d\ude00", "\u0418\u0432\u0430\u043d", GroupName.M3239));
+        final Path file = dir.resolve("roster");
+        RosterFile.write(students, file);
+        assertEquals(describe(students), describe(RosterFile.open(file)));
+    }
+
+    @Test
+    void rewriteReplacesFileAndLeavesNoTemporaries() throws IOException {
+        final Path file = dir.resolve("roster");
+        RosterFile.write(StudentFixtures.randomStudents(random, 50), file);
+        final List<Student> students = StudentFixtures.randomStudents(random, 3);
+        RosterFile.write(students, file);
+        assertEquals(describe(students), describe(RosterFile.open(file)));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of(file), files.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void truncatedFile() throws IOException {
+        final Path file = written(10);
+        final byte[] data = Files.readAllBytes(file);
+        for (int length : new int[]{0, HEADER_SIZE - 1, HEADER_SIZE + 8, data.length - 1}) {
+            Files.write(file, Arrays.copyOf(data, length));
+            assertMalformed(file);
+        }
+    }
+
+    @Test
+    void badMagic() throws IOException {
+        final Path file = written(3);
+        patch(file, data -> data.putInt(0, 0x12345678));
+        assertMalformed(file);
+    }
+
+    @Test
+    void unknownGroup() throws IOException {
+        final Path file = written(3);
+        patch(file, data -> data.put(HEADER_SIZE + 3 * 3 * Integer.BYTES + 1, (byte) GroupName.values().length));
+        assertMalformed(file);
+    }
+
+    @Test
+    void unknownName() throws IOException {
+        final Path file = written(3);
+        // last name code of the third student
+        patch(file, data -> data.putInt(HEADER_SIZE + (2 * 3 + 2) * Integer.BYTES, 1000));
+        assertMalformed(file);
+        patch(file, data -> data.putInt(HEADER_SIZE + (2 * 3 + 2) * Integer.BYTES, -1));
+        assertMalformed(file);
+    }
+
+    @Test
+    void descendingNameOffsets() throws IOException {
+        final Path file = written(3);
+        // the string table follows three int columns and group bytes padded to four
+        final int offsets = HEADER_SIZE + 3 * 3 * Integer.BYTES + Integer.BYTES;
+        patch(file, data -> {
+            final int first = data.getInt(offsets + Integer.BYTES);
+            final int second = data.getInt(offsets + 2 * Integer.BYTES);
+            data.putInt(offsets + Integer.BYTES, second).putInt(offsets + 2 * Integer.BYTES, first);
+        });
+        assertMalformed(file);
+    }
+
+    private Path written(int size) throws IOException {
+        final Path file = dir.resolve("roster");
+        RosterFile.write(StudentFixtures.randomStudents(random, size), file);
+        return file;
+    }
+
+    private static void assertMalformed(Path file) {
+        assertThrows(IOException.class, () -> RosterFile.open(file));
+        assertThrows(IOException.class, () -> RosterFile.openTable(file));
+    }
+
+    private interface Patch {
+        void apply(ByteBuffer data);
+    }
+
+    private static void patch(Path file, Patch patch) throws IOException {
+        final ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        patch.apply(data);
+        Files.write(file, data.array());
+    }
+}
@@ -0,0 +1,180 @@
+package student;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static student.StudentFixtures.describe;
+import static student.StudentFixtures.describeGroups;
+
+/**
+ * Every engine must give the results of {@link StudentDB} for the same students in the same order,
+ * including the order of students with equal names, which the stable sorts keep as in the input.
+ */
+class StudentDBEquivalenceTest {
+    private static final int[] SIZES = {0, 1, 2, 7, 100, 1000};
+    private static final String[] NAMES = {"Anna", "Egor", "Ivanov", "Smirnov", "Nobody"};
+
+    private final StudentDB reference = new StudentDB();
+    private final Random random = new Random(2713);
+
+    @Test
+    void studentDBPages() {
+        for (int size : SIZES) {
+            List<Student> students = StudentFixtures.randomStudents(random, size);
+            assertSameResults(reference, students, students);
+        }
+    }
+
+    @Test
+    void indexed() {
+        for (int size : SIZES) {
+            List<Student> students = StudentFixtures.randomStudents(random, size);
+            IndexedStudentDB db = new IndexedStudentDB(students);
+            assertSameResults(db, db.getStudents(), students);
+            // other collections, even the one the indexes were built from, fall back to StudentDB
+            assertSameResults(db, students, students);
+            List<Student> shuffled = new ArrayList<>(students);
+            Collections.shuffle(shuffled, random);
+            assertSameResults(db, shuffled, shuffled);
+
+            assertEquals(describeGroups(reference.getGroupsByName(students)), describeGroups(db.getGroupsByName()));
+            assertEquals(describeGroups(reference.getGroupsById(students)), describeGroups(db.getGroupsById()));
+            assertEquals(reference.getLargestGroup(students), db.getLargestGroup());
+            assertEquals(reference.getLargestGroupFirstName(students), db.getLargestGroupFirstName());
+            assertEquals(reference.getDistinctFirstNames(students), db.getDistinctFirstNames());
+            assertEquals(reference.getMaxStudentFirstName(students), db.getMaxStudentFirstName());
+            assertEquals(describe(reference.sortStudentsById(students)), describe(db.sortStudentsById()));
+            assertEquals(describe(reference.sortStudentsByName(students)), describe(db.sortStudentsByName()));
+            for (String name : NAMES) {
+                assertEquals(describe(reference.findStudentsByFirstName(students, name)),
+                        describe(db.findStudentsByFirstName(name)));
+                assertEquals(describe(reference.findStudentsByLastName(students, name)),
+                        describe(db.findStudentsByLastName(name)));
+            }
+        }
+    }
+
+    @Test
+    void columnar() {
+        ColumnarStudentDB db = new ColumnarStudentDB();
+        for (int size : SIZES) {
+            List<Student> students = StudentFixtures.randomStudents(random, size);
+            assertSameResults(db, new StudentTable(students), students);
+            assertSameResults(db, students, students);
+        }
+    }
+
+    @Test
+    void parallel() {
+        for (int threshold : new int[]{0, 1, 50, ParallelStudentDB.DEFAULT_THRESHOLD}) {
+            ParallelStudentDB db = new ParallelStudentDB(threshold);
+            for (int size : SIZES) {
+                List<Student> students = StudentFixtures.randomStudents(random, size);
+                assertSameResults(db, students, students);
+            }
+        }
+    }
+
+    @Test
+    void streaming() {
+        for (int size : SIZES) {
+            List<Student> students = StudentFixtures.randomStudents(random, size);
+            StreamingStudentDB db = new StreamingStudentDB(students);
+            assertSameResults(db, db.getStudents(), students);
+
+            // replacing moves a student to the end, removing drops it
+            List<Student> expected = new ArrayList<>(students);
+            for (int i = 0; i < size / 3; i++) {
+                Student student = expected.remove(random.nextInt(expected.size()));
+                if (random.nextBoolean()) {
+                    assertSame(student, db.remove(student.getId()));
+                } else {
+                    Student replacement = new Student(student.getId(), "Zoe", student.getLastName(),
+                            GroupName.values()[random.nextInt(GroupName.values().length)]);
+                    assertSame(student, db.add(replacement));
+                    expected.add(replacement);
+                }
+            }
+            assertEquals(describe(expected), describe(db.getStudents()));
+            assertSameResults(db, db.getStudents(), expected);
+            assertEquals(reference.getLargestGroup(expected), db.getLargestGroup());
+            assertEquals(reference.getLargestGroupFirstName(expected), db.getLargestGroupFirstName());
+        }
+    }
+
+    @Test
+    void caching() {
+        CachingStudentDB db = new CachingStudentDB();
+        for (int size : SIZES) {
+            List<Student> students = StudentFixtures.randomStudents(random, size);
+            StudentTable table = new StudentTable(students);
+            // the second pass is answered from the cache
+            for (int pass = 0; pass < 2; pass++) {
+                assertSameResults(db, students, students);
+                assertSameResults(db, table, students);
+            }
+        }
+        assertTrue(db.getHits() > 0);
+    }
+
+    /** Checks every query of {@code db} on {@code input} against {@link StudentDB} on {@code expected}. */
+    private void assertSameResults(GroupQuery db, Collection<Student> input, List<Student> expected) {
+        List<Student> list = input instanceof List ? (List<Student>) input : new ArrayList<>(input);
+        assertEquals(reference.getFirstNames(expected), db.getFirstNames(list));
+        assertEquals(reference.getLastNames(expected), db.getLastNames(list));
+        assertEquals(reference.getGroups(expected), db.getGroups(list));
+        assertEquals(reference.getFullNames(expected), db.getFullNames(list));
+        assertEquals(reference.getDistinctFirstNames(expected), db.getDistinctFirstNames(list));
+        assertEquals(reference.getMaxStudentFirstName(expected), db.getMaxStudentFirstName(list));
+
+        List<Student> byId = reference.sortStudentsById(expected);
+        List<Student> byName = reference.sortStudentsByName(expected);
+        assertEquals(describe(byId), describe(db.sortStudentsById(input)));
+        assertEquals(describe(byName), describe(db.sortStudentsByName(input)));
+        assertEquals(describeGroups(reference.getGroupsByName(expected)), describeGroups(db.getGroupsByName(input)));
+        assertEquals(describeGroups(reference.getGroupsById(expected)), describeGroups(db.getGroupsById(input)));
+        assertEquals(reference.getLargestGroup(expected), db.getLargestGroup(input));
+        assertEquals(reference.getLargestGroupFirstName(expected), db.getLargestGroupFirstName(input));
+
+        assertPages(byId, (offset, limit) -> db.sortStudentsById(input, offset, limit));
+        assertPages(byName, (offset, limit) -> db.sortStudentsByName(input, offset, limit));
+        for (String name : NAMES) {
+            List<Student> byFirstName = reference.findStudentsByFirstName(expected, name);
+            List<Student> byLastName = reference.findStudentsByLastName(expected, name);
+            assertEquals(describe(byFirstName), describe(db.findStudentsByFirstName(input, name)));
+            assertEquals(describe(byLastName), describe(db.findStudentsByLastName(input, name)));
+            assertPages(byFirstName, (offset, limit) -> db.findStudentsByFirstName(input, name, offset, limit));
+            assertPages(byLastName, (offset, limit) -> db.findStudentsByLastName(input, name, offset, limit));
+        }
+        for (GroupName group : GroupName.values()) {
+            List<Student> byGroup = reference.findStudentsByGroup(expected, group);
+            assertEquals(describe(byGroup), describe(db.findStudentsByGroup(input, group)));
+            assertPages(byGroup, (offset, limit) -> db.findStudentsByGroup(input, group, offset, limit));
+            assertEquals(reference.findStudentNamesByGroup(expected, group), db.findStudentNamesByGroup(input, group));
+        }
+    }
+
+    private interface Page {
+        List<Student> get(int offset, int limit);
+    }
+
+    /** Checks that pages are the corresponding sublists of the complete result. */
+    private static void assertPages(List<Student> all, Page page) {
+        int size = all.size();
+        for (int offset : new int[]{0, 1, 3, size / 2, size - 1, size, size + 5}) {
+            if (offset < 0) {
+                continue;
+            }
+            for (int limit : new int[]{0, 1, 4, size, Integer.MAX_VALUE}) {
+                int from = Math.min(offset, size);
+                int to = (int) Math.min((long) from + limit, size);
+                assertEquals(describe(all.subList(from, to)), describe(page.get(offset, limit)),
+                        "offset " + offset + ", limit " + limit);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> page.get(-1, 1));
+        assertThrows(IllegalArgumentException.class, () -> page.get(0, -1));
+    }
+}
@@ -0,0 +1,45 @@
+package student;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/** Random rosters with many ties, and field-wise views of students, which have no {@code equals}. */
+final class StudentFixtures {
+    static final String[] FIRST_NAMES = {"Anna", "Boris", "Daria", "Egor", "Ivan", "Maria"};
+    static final String[] LAST_NAMES = {"Ivanov", "Petrov", "Sidorov", "Smirnov"};
+
+    private StudentFixtures() {
+    }
+
+    /** Students with distinct ids in random order and few distinct names and groups. */
+    static List<Student> randomStudents(Random random, int size) {
+        final List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            ids.add(i * 3 - size);
+        }
+        Collections.shuffle(ids, random);
+        final GroupName[] groups = GroupName.values();
+        final List<Student> students = new ArrayList<>(size);
+        for (int id : ids) {
+            students.add(new Student(id,
+                    FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                    LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                    groups[random.nextInt(groups.length - 1)]));
+        }
+        return students;
+    }
+
+    static String describe(Student student) {
+        return student.getId() + " " + student.getFirstName() + " " + student.getLastName() + " " + student.getGroup();
+    }
+
+    static List<String> describe(Collection<Student> students) {
+        return students.stream().map(StudentFixtures::describe).collect(Collectors.toList());
+    }
+
+    static List<String> describeGroups(List<Group> groups) {
+        return groups.stream()
+                .map(group -> group.getName() + ": " + describe(group.getStudents()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,73 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Navigation over {@code ArraySet}. The set lives in the default package,
+ * so it is created reflectively and used through {@link NavigableSet}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ArraySetBenchmark {
+    private static final int PROBES = 1 << 12;
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    @Param({"16"})
+    private int span;
+
+    /** Name of a {@code SearchLayout} constant. */
+    @Param({"BINARY", "BLOCK_INDEX"})
+    private String layout;
+
+    private NavigableSet<Integer> set;
+    private Integer[] probes;
+    private int next;
+
+    @Setup
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void setUp() throws ReflectiveOperationException {
+        final Random random = new Random(239);
+        final List<Integer> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(random.nextInt(size * 4));
+        }
+        final Class<? extends Enum> layoutType = (Class<? extends Enum>) Class.forName("SearchLayout");
+        set = (NavigableSet<Integer>) Class.forName("ArraySet")
+                .getConstructor(Collection.class, Comparator.class, layoutType)
+                .newInstance(values, null, Enum.valueOf(layoutType, layout));
+        probes = new Integer[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probes[i] = random.nextInt(size * 4 - span);
+        }
+    }
+
+    private Integer nextProbe() {
+        next = (next + 1) & (PROBES - 1);
+        return probes[next];
+    }
+
+    @Benchmark
+    public Integer floor() {
+        return set.floor(nextProbe());
+    }
+
+    @Benchmark
+    public Integer ceiling() {
+        return set.ceiling(nextProbe());
+    }
+
+    @Benchmark
+    public int subSet() {
+        final Integer from = nextProbe();
+        return set.subSet(from, true, from + span, false).size();
+    }
+}
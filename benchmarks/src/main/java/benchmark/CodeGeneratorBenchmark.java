@@ -0,0 +1,34 @@
+package benchmark;
+
+import itmo.implementor.CodeGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Source generation by {@link CodeGenerator} for classes of different size. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CodeGeneratorBenchmark {
+    @Param({"java.lang.Runnable", "java.io.BufferedWriter", "java.util.ArrayList"})
+    private String className;
+
+    private Class<?> loadedClass;
+
+    @Setup
+    public void setUp() throws ClassNotFoundException {
+        loadedClass = Class.forName(className);
+    }
+
+    @Benchmark
+    public String generate() {
+        return CodeGenerator.generatePackage(loadedClass)
+                + CodeGenerator.generateClassDeclaration(loadedClass)
+                + CodeGenerator.generateFields(loadedClass)
+                + CodeGenerator.generateMethods(loadedClass)
+                + CodeGenerator.generateConstructors(loadedClass);
+    }
+}
@@ -0,0 +1,69 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import walk.FileHashReader;
+import walk.FileHasher;
+import walk.FileVisitorImpl;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/** Walking and hashing a synthetic directory tree with {@link FileVisitorImpl}. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileHashBenchmark {
+    @Param({"pjw", "word64", "crc32c"})
+    private String algorithm;
+
+    @Param({"1024", "65536", "4194304"})
+    private int fileSize;
+
+    @Param({"64"})
+    private int files;
+
+    @Param({"1048576"})
+    private long mapThreshold;
+
+    private Path root;
+
+    @Setup
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("walk-benchmark");
+        final Random random = new Random(239);
+        final byte[] content = new byte[fileSize];
+        for (int i = 0; i < files; i++) {
+            final Path dir = root.resolve("d" + i % 8).resolve("e" + i % 3);
+            Files.createDirectories(dir);
+            random.nextBytes(content);
+            Files.write(dir.resolve("f" + i), content);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public void walk() throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(Writer.nullWriter())) {
+            final FileHashReader hashReader = new FileHashReader(mapThreshold, FileHasher.forName(algorithm).get());
+            Files.walkFileTree(root, new FileVisitorImpl(writer, hashReader));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code IterativeParallelism.minimum/maximum} across thread counts.
+ * The class lives in the default package, so it is called through method handles.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IterativeParallelismBenchmark {
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    /** {@code threads} starts threads per call, {@code mapper} reuses a {@code ParallelMapper}. */
+    @Param({"threads", "mapper"})
+    private String execution;
+
+    private final Comparator<Integer> comparator = Comparator.naturalOrder();
+    private Object parallelism;
+    private AutoCloseable mapper;
+    private MethodHandle minimum;
+    private MethodHandle maximum;
+    private List<Integer> values;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        final Class<?> type = Class.forName("IterativeParallelism");
+        final MethodType signature = MethodType.methodType(Object.class, int.class, List.class, Comparator.class);
+        if (execution.equals("mapper")) {
+            final Class<?> mapperType = Class.forName("ParallelMapper");
+            mapper = (AutoCloseable) mapperType.getConstructor(int.class).newInstance(threads);
+            parallelism = type.getConstructor(mapperType).newInstance(mapper);
+        } else {
+            parallelism = type.getConstructor().newInstance();
+        }
+        minimum = MethodHandles.publicLookup().findVirtual(type, "minimum", signature);
+        maximum = MethodHandles.publicLookup().findVirtual(type, "maximum", signature);
+        final Random random = new Random(239);
+        values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(random.nextInt());
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        if (mapper != null) {
+            mapper.close();
+        }
+    }
+
+    @Benchmark
+    public Object minimum() throws Throwable {
+        return minimum.invoke(parallelism, threads, values, comparator);
+    }
+
+    @Benchmark
+    public Object maximum() throws Throwable {
+        return maximum.invoke(parallelism, threads, values, comparator);
+    }
+}
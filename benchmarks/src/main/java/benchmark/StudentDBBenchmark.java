@@ -0,0 +1,107 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import student.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/** {@link StudentDB} queries over randomly generated rosters. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StudentDBBenchmark {
+    private static final String[] FIRST_NAMES = {
+            "Anna", "Boris", "Daria", "Egor", "Ivan", "Maria", "Nikita", "Olga", "Pavel", "Sofia"
+    };
+    private static final String[] LAST_NAMES = {
+            "Ivanov", "Petrov", "Sidorov", "Smirnov", "Kuznetsov", "Popov", "Volkov", "Sokolov"
+    };
+
+    @Param({"100", "10000", "1000000"})
+    private int size;
+
+    private final StudentDB db = new StudentDB();
+    private List<Student> students;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(239);
+        final GroupName[] groups = GroupName.values();
+        students = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            students.add(new Student(random.nextInt(),
+                    FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                    LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                    groups[random.nextInt(groups.length)]));
+        }
+    }
+
+    @Benchmark
+    public List<Student> sortStudentsByName() {
+        return db.sortStudentsByName(students);
+    }
+
+    @Benchmark
+    public List<Student> findStudentsByGroup() {
+        return db.findStudentsByGroup(students, GroupName.M3236);
+    }
+
+    @Benchmark
+    public Map<String, String> findStudentNamesByGroup() {
+        return db.findStudentNamesByGroup(students, GroupName.M3236);
+    }
+
+    @Benchmark
+    public List<Group> getGroupsByName() {
+        return db.getGroupsByName(students);
+    }
+
+    @Benchmark
+    public List<Group> getGroupsById() {
+        return db.getGroupsById(students);
+    }
+
+    /**
+     * Baseline for {@link #getGroupsByName()}: the original implementation, grouping into a {@code HashMap}
+     * of lists and sorting every list through a stream before {@link Group} copies it.
+     */
+    @Benchmark
+    public List<Group> getGroupsByNameHashMapBaseline() {
+        return students.stream()
+                .collect(Collectors.groupingBy(Student::getGroup))
+                .entrySet()
+                .stream()
+                .map(e -> new Group(e.getKey(), e.getValue().stream()
+                        .sorted(Comparator.comparing(Student::getFirstName))
+                        .collect(Collectors.toList())))
+                .sorted(Comparator.comparing(Group::getName))
+                .collect(Collectors.toList());
+    }
+
+    /** Public {@link StudentDB#getGroupsBy} with a sorting mapper, which groups into an {@code EnumMap} of lists. */
+    @Benchmark
+    public List<Group> getGroupsByEnumMapMapper() {
+        return db.getGroupsBy(students, s -> s.stream()
+                .sorted(Comparator.comparing(Student::getFirstName))
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public GroupName getLargestGroup() {
+        return db.getLargestGroup(students);
+    }
+
+    @Benchmark
+    public GroupName getLargestGroupFirstName() {
+        return db.getLargestGroupFirstName(students);
+    }
+}